@@ -1,11 +1,16 @@
 package com.streamflow.core;
 
+import com.streamflow.core.config.StreamflowRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.retry.annotation.EnableRetry; // <--- Import this
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableRetry // <--- Add this
+@EnableScheduling
+@ImportRuntimeHints(StreamflowRuntimeHints.class)
 public class CoreApplication {
     public static void main(String[] args) {
         SpringApplication.run(CoreApplication.class, args);
@@ -0,0 +1,324 @@
+package com.streamflow.core.coalescing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamflow.core.config.NotificationProperties;
+import com.streamflow.core.dto.NotificationRequest;
+import com.streamflow.core.model.DigestItem;
+import com.streamflow.core.model.NotificationLog;
+import com.streamflow.core.service.DlqService;
+import com.streamflow.core.service.MetricsService;
+import com.streamflow.core.service.NotificationWriter;
+import jakarta.annotation.PreDestroy;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Folds bursts of notifications for the same (tenant, userId, channel) into digests.
+ *
+ * The first notification for a key passes straight through and opens a window. Notifications
+ * arriving while the window is open are buffered; when it expires they are written as one digest
+ * {@link NotificationLog} (or as a normal notification if only one arrived) with the originals
+ * kept in {@code items}, and the window rolls over for as long as the burst continues. A window
+ * that expires empty is closed. Window timers live in a single {@link DelayQueue} served by one
+ * thread, so there is no per-key thread or scheduled task.
+ *
+ * Digests are written by a small bounded pool, so a storm of expiring windows doesn't delay the
+ * timer; when the pool's queue is full the timer writes the digest itself. The Kafka offsets of the
+ * items are already committed at that point, so a failed write is retried and, once the attempts
+ * are exhausted, every item is sent to the DLQ individually rather than dropped. Buffered items are
+ * held in memory only: a crash loses at most one window per key.
+ */
+@Component
+public class BurstCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(BurstCoalescer.class);
+    private static final long POLL_MILLIS = 100;
+
+    private final NotificationProperties.Coalescing config;
+    private final String defaultChannel;
+    private final NotificationWriter notificationWriter;
+    private final DlqService dlqService;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final MetricsService metricsService;
+    private final ObjectMapper objectMapper;
+    private final RetryTemplate emitRetry;
+
+    private final Map<WindowKey, Window> windows = new ConcurrentHashMap<>();
+    private final DelayQueue<Window> timers = new DelayQueue<>();
+    private final Thread timerThread;
+    private final ThreadPoolExecutor emitExecutor;
+    private volatile boolean running = true;
+
+    public BurstCoalescer(NotificationProperties properties,
+                          NotificationWriter notificationWriter,
+                          DlqService dlqService,
+                          KafkaTemplate<String, String> kafkaTemplate,
+                          MetricsService metricsService,
+                          ObjectMapper objectMapper) {
+        this.config = properties.getCoalescing();
+        this.defaultChannel = properties.getDelivery().getDefaultChannel();
+        this.notificationWriter = notificationWriter;
+        this.dlqService = dlqService;
+        this.kafkaTemplate = kafkaTemplate;
+        this.metricsService = metricsService;
+        this.objectMapper = objectMapper;
+        this.emitRetry = RetryTemplate.builder()
+                .maxAttempts(config.getEmitMaxAttempts())
+                .exponentialBackoff(config.getEmitRetryBackoffMs(), 2, config.getEmitRetryBackoffMs() * 8)
+                .retryOn(RuntimeException.class)
+                .build();
+
+        if (config.isEnabled()) {
+            metricsService.registerCoalescingWindows(windows::size);
+            emitExecutor = new ThreadPoolExecutor(config.getEmitThreads(), config.getEmitThreads(), 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(config.getEmitQueueCapacity()), r -> {
+                        Thread thread = new Thread(r, "coalescing-emit");
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+            timerThread = new Thread(this::runTimers, "coalescing-timer");
+            timerThread.setDaemon(true);
+            timerThread.start();
+        } else {
+            emitExecutor = null;
+            timerThread = null;
+        }
+    }
+
+    /**
+     * @return true if the notification was buffered for a digest; false if the caller should
+     * write it as usual (coalescing off, no userId, first of a burst, or too many open windows)
+     */
+    public boolean offer(NotificationRequest request) {
+        if (!config.isEnabled() || request.getUserId() == null) {
+            return false;
+        }
+        WindowKey key = new WindowKey(request.getTenant(), request.getUserId(),
+                request.getChannel() != null ? request.getChannel() : defaultChannel);
+        DigestItem item = new DigestItem(request.getMessage(), request.getType(), LocalDateTime.now());
+
+        while (true) {
+            Window window = windows.get(key);
+            if (window == null) {
+                if (windows.size() >= config.getMaxOpenWindows()) {
+                    return false;
+                }
+                Window opened = new Window(key, deadline());
+                if (windows.putIfAbsent(key, opened) == null) {
+                    timers.add(opened);
+                    return false;
+                }
+                continue;
+            }
+
+            List<DigestItem> full = null;
+            synchronized (window) {
+                if (window.closed) {
+                    continue; // expired concurrently, open a new one
+                }
+                window.items.add(item);
+                if (window.items.size() >= config.getMaxItems()) {
+                    full = window.drain();
+                }
+            }
+            metricsService.incrementCoalesced();
+            if (full != null) {
+                submitEmit(key, full);
+            }
+            return true;
+        }
+    }
+
+    private void runTimers() {
+        while (running) {
+            try {
+                Window window = timers.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (window != null) {
+                    expire(window);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Coalescing timer failed", e);
+            }
+        }
+    }
+
+    private void expire(Window window) {
+        List<DigestItem> items;
+        synchronized (window) {
+            items = window.drain();
+            if (items.isEmpty()) {
+                window.closed = true;
+                windows.remove(window.key, window);
+                return;
+            }
+            window.deadlineNanos = deadline();
+        }
+        // Burst still going: keep the window open for another period
+        timers.add(window);
+        submitEmit(window.key, items);
+    }
+
+    private void submitEmit(WindowKey key, List<DigestItem> items) {
+        emitExecutor.execute(() -> emit(key, items));
+    }
+
+    private void emit(WindowKey key, List<DigestItem> items) {
+        DigestItem last = items.get(items.size() - 1);
+        NotificationLog entity = NotificationLog.builder()
+                .message(items.size() == 1 ? last.getMessage() : items.size() + " notifications, latest: " + last.getMessage())
+                .type(mostSevere(items))
+                .channel(key.getChannel())
+                .userId(key.getUserId())
+                .tenant(key.getTenant())
+                .timestamp(last.getTimestamp())
+                .build();
+        if (items.size() > 1) {
+            entity.setItemCount(items.size());
+            entity.setItems(items);
+        }
+
+        NotificationRequest feedEntry = new NotificationRequest();
+        feedEntry.setMessage(entity.getMessage());
+        feedEntry.setType(entity.getType());
+        feedEntry.setChannel(entity.getChannel());
+        feedEntry.setUserId(entity.getUserId());
+        feedEntry.setTenant(entity.getTenant());
+
+        try {
+            String feedPayload = objectMapper.writeValueAsString(feedEntry);
+            emitRetry.execute(context -> notificationWriter.write(entity, feedPayload));
+            metricsService.incrementDigests(items.size());
+            // The items were acknowledged to Kafka when buffered; they count as processed only now
+            metricsService.incrementNotificationsProcessed(items.size());
+            metricsService.incrementTenantProcessed(key.getTenant(), items.size());
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.error("Failed to write digest of {} notification(s) for user {}, sending them to the DLQ",
+                    items.size(), key.getUserId(), e);
+            metricsService.incrementNotificationsFailed();
+            deadLetter(key, items, e);
+        }
+    }
+
+    // One DLQ record per original item, so a redrive replays them like any other notification
+    private void deadLetter(WindowKey key, List<DigestItem> items, Exception cause) {
+        for (DigestItem item : items) {
+            NotificationRequest request = new NotificationRequest();
+            request.setMessage(item.getMessage());
+            request.setType(item.getType());
+            request.setChannel(key.getChannel());
+            request.setUserId(key.getUserId());
+            request.setTenant(key.getTenant());
+            try {
+                kafkaTemplate.send(dlqService.toDlqRecord("coalescing", key.getUserId(), objectMapper.writeValueAsString(request),
+                                cause.getClass().getName(), cause.getMessage(), config.getEmitMaxAttempts()))
+                        .whenComplete((result, error) -> {
+                            if (error != null) {
+                                log.error("Lost coalesced notification for user {}: DLQ send failed", key.getUserId(), error);
+                            }
+                        });
+                metricsService.incrementDlqMessages();
+            } catch (JsonProcessingException | RuntimeException e) {
+                log.error("Lost coalesced notification for user {}: DLQ send failed", key.getUserId(), e);
+            }
+        }
+    }
+
+    private static String mostSevere(List<DigestItem> items) {
+        String type = null;
+        for (DigestItem item : items) {
+            if ("ERROR".equals(item.getType())) {
+                return "ERROR";
+            }
+            if ("WARN".equals(item.getType()) || type == null) {
+                type = item.getType();
+            }
+        }
+        return type;
+    }
+
+    private long deadline() {
+        return System.nanoTime() + config.getWindow().toNanos();
+    }
+
+    /**
+     * Writes out everything still buffered; listeners are already stopped at this point.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (timerThread == null) {
+            return;
+        }
+        running = false;
+        timerThread.join(TimeUnit.SECONDS.toMillis(5));
+        for (Window window : windows.values()) {
+            List<DigestItem> items;
+            synchronized (window) {
+                window.closed = true;
+                items = window.drain();
+            }
+            if (!items.isEmpty()) {
+                submitEmit(window.key, items);
+            }
+        }
+        windows.clear();
+        emitExecutor.shutdown();
+        if (!emitExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Digest writes did not finish in time, {} queued", emitExecutor.getQueue().size());
+            emitExecutor.shutdownNow();
+        }
+    }
+
+    @Value
+    private static class WindowKey {
+        String tenant;
+        String userId;
+        String channel;
+    }
+
+    private static final class Window implements Delayed {
+        private final WindowKey key;
+        private final List<DigestItem> items = new ArrayList<>();
+        private volatile long deadlineNanos;
+        private boolean closed;
+
+        Window(WindowKey key, long deadlineNanos) {
+            this.key = key;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        List<DigestItem> drain() {
+            List<DigestItem> drained = new ArrayList<>(items);
+            items.clear();
+            return drained;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadlineNanos, ((Window) other).deadlineNanos);
+        }
+    }
+}
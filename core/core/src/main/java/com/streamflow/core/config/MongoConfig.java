@@ -0,0 +1,47 @@
+package com.streamflow.core.config;
+
+import com.mongodb.ReadPreference;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MongoConfig {
+
+    public static final String READ_TEMPLATE = "readMongoTemplate";
+
+    private static final long MIN_MAX_STALENESS_SECONDS = 90;
+
+    // Writes, repositories and anything that must see its own writes; replaces Boot's default template
+    @Bean
+    @Primary
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory factory, MongoConverter converter) {
+        return new MongoTemplate(factory, converter);
+    }
+
+    // Same connection pool, but reads are routed by notification.mongo.read-preference
+    @Bean(READ_TEMPLATE)
+    public MongoTemplate readMongoTemplate(MongoDatabaseFactory factory, MongoConverter converter, NotificationProperties properties) {
+        MongoTemplate template = new MongoTemplate(factory, converter);
+        template.setReadPreference(readPreference(properties.getMongo()));
+        return template;
+    }
+
+    static ReadPreference readPreference(NotificationProperties.Mongo config) {
+        ReadPreference preference = ReadPreference.valueOf(config.getReadPreference());
+        long maxStaleness = config.getMaxStalenessSeconds();
+        if (preference.equals(ReadPreference.primary()) || maxStaleness <= 0) {
+            return preference;
+        }
+        if (maxStaleness < MIN_MAX_STALENESS_SECONDS) {
+            throw new IllegalStateException("notification.mongo.max-staleness-seconds must be 0 or at least " + MIN_MAX_STALENESS_SECONDS);
+        }
+        return ReadPreference.valueOf(preference.getName(), List.of(), maxStaleness, TimeUnit.SECONDS);
+    }
+}
@@ -4,13 +4,28 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
-@Configuration
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration(proxyBeanMethods = false)
 @ConfigurationProperties(prefix = "notification")
 @Data
 public class NotificationProperties {
     
     private Kafka kafka = new Kafka();
     private Redis redis = new Redis();
+    private Outbox outbox = new Outbox();
+    private Dlq dlq = new Dlq();
+    private Security security = new Security();
+    private ResponseCache responseCache = new ResponseCache();
+    private Tracing tracing = new Tracing();
+    private Delivery delivery = new Delivery();
+    private Coalescing coalescing = new Coalescing();
+    private Scheduler scheduler = new Scheduler();
+    private Mongo mongo = new Mongo();
     
     @Data
     public static class Kafka {
@@ -22,7 +37,174 @@ public class NotificationProperties {
     
     @Data
     public static class Redis {
-        private String recentNotificationsKey = "recent_notifications";
+        // Sorted set scored by timestamp, capped by size and by age
+        private String recentFeedKey = "recent_feed";
         private int recentNotificationsLimit = 10;
+        private int recentFeedMaxSize = 10000;
+        private Duration recentFeedWindow = Duration.ofHours(1);
+        private int recentFeedPruneEvery = 100;
+    }
+
+    @Data
+    public static class Outbox {
+        // When enabled, the REST path appends to a local log and a relay drains it to Kafka
+        private boolean enabled = false;
+        private String directory = "./data/outbox";
+        private int segmentBytes = 64 * 1024 * 1024;
+        private long fsyncIntervalMs = 5;
+        private long appendTimeoutMs = 2000;
+        private int relayBatchSize = 500;
+        private long relayIntervalMs = 50;
+        private long relaySendTimeoutMs = 10000;
+        // Bounds how long one send may wait for broker metadata or buffer space before failing fast
+        private long relayMaxBlockMs = 1000;
+        private long relayMaxBackoffMs = 30000;
+    }
+
+    @Data
+    public static class Dlq {
+        // Redrive replays DLQ messages to the main topic at a bounded rate
+        private int redriveRatePerSecond = 200;
+        private int redriveMaxRatePerSecond = 5000;
+        private int redriveBatchSize = 500;
+        private long redriveSendTimeoutMs = 30000;
+        // Finished redrive jobs stay queryable this long, then are dropped from memory
+        private Duration redriveJobRetention = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Security {
+        // Legacy single operator key, mapped to the default tenant with admin rights
+        private String apiKey;
+        private String defaultTenant = "default";
+        private double defaultRequestsPerSecond = 1000;
+        private int defaultBurst = 2000;
+        // Token bucket stripes per tenant; raise for tenants pushing tens of thousands of req/s
+        private int rateLimitStripes = 1;
+        private List<Tenant> tenants = new ArrayList<>();
+        private DistributedRateLimit distributedRateLimit = new DistributedRateLimit();
+    }
+
+    @Data
+    public static class Tenant {
+        private String id;
+        private List<String> apiKeys = new ArrayList<>();
+        // Also authenticate as this tenant, and may call /api/v1/admin/** (DLQ inspection and redrive)
+        private List<String> adminApiKeys = new ArrayList<>();
+        private Double requestsPerSecond;
+        private Integer burst;
+        private Integer stripes;
+    }
+
+    @Data
+    public static class DistributedRateLimit {
+        // When enabled, local buckets are resized to this node's share of cluster-wide traffic
+        private boolean enabled = false;
+        private long syncIntervalMs = 200;
+        private String keyPrefix = "ratelimit";
+        private double minShare = 0.1;
+    }
+
+    @Data
+    public static class ResponseCache {
+        // Cluster-wide data version, bumped by consumers and polled by every node
+        private boolean enabled = true;
+        private String versionKey = "feed_version";
+        private long versionRefreshMs = 100;
+        // A version not refreshed within this long is treated as unknown (cache bypassed)
+        private long maxVersionAgeMs = 1000;
+        // A 304 needs the entry for its key, so this also bounds how many distinct queries revalidate for free
+        private int maxEntries = 1024;
+    }
+
+    @Data
+    public static class Tracing {
+        // Base rate is management.tracing.sampling.probability; these add tail-based keeps on top
+        private boolean tailSamplingEnabled = true;
+        private long slowThresholdMs = 1000;
+        private int maxSpansPerSecond = 1000;
+        private int maxBufferedTraces = 10000;
+        private int maxSpansPerTrace = 256;
+        private long bufferTtlMs = 30000;
+        // Stale buffers are checked this often, so one lives at most bufferTtlMs plus this
+        private long bufferEvictIntervalMs = 1000;
+    }
+
+    @Data
+    public static class Delivery {
+        // Each channel gets its own worker pool, bounded queue and circuit breaker
+        private boolean enabled = false;
+        // Stubs mark notifications DELIVERED without sending anything, so channels without a sender fail startup unless set
+        private boolean stubSendersEnabled = false;
+        private String defaultChannel = "SYSTEM";
+        private long shutdownTimeoutMs = 10000;
+        private Map<String, DeliveryChannel> channels = new LinkedHashMap<>();
+        // Failed and rejected deliveries are retried with backoff by a sweep; after maxAttempts they go to the DLQ
+        private int maxAttempts = 5;
+        private long retryBackoffMs = 1000;
+        private long retryMaxBackoffMs = 60000;
+        private long retrySweepIntervalMs = 1000;
+        private int retrySweepBatchSize = 500;
+        // An attempt not confirmed within this long (e.g. its node died) is picked up by the sweep again
+        private long retryLeaseMs = 300000;
+        private long deadLetterSendTimeoutMs = 10000;
+    }
+
+    @Data
+    public static class DeliveryChannel {
+        private int concurrency = 4;
+        private int queueCapacity = 10000;
+        // Capped by what the sender supports; 1 disables batching
+        private int maxBatchSize = 1;
+        private long batchLingerMs = 10;
+        private double breakerFailureRateThreshold = 0.5;
+        private int breakerWindowSize = 50;
+        private int breakerMinimumCalls = 20;
+        private long breakerOpenMs = 30000;
+        // Local stub, used when no ChannelSender bean handles the channel
+        private long stubLatencyMs = 0;
+        private double stubFailureRate = 0.0;
+    }
+
+    @Data
+    public static class Coalescing {
+        // Bursts per (tenant, userId, channel) become one digest per window; the first item is never delayed
+        private boolean enabled = false;
+        private Duration window = Duration.ofSeconds(30);
+        private int maxItems = 100;
+        private int maxOpenWindows = 100000;
+        // Digests are written off the timer thread; failed writes are retried, then the items go to the DLQ
+        private int emitThreads = 2;
+        private int emitQueueCapacity = 1000;
+        private int emitMaxAttempts = 3;
+        private long emitRetryBackoffMs = 500;
+    }
+
+    @Data
+    public static class Scheduler {
+        // Requests with sendAt are stored in Mongo and loaded into an in-memory timing wheel shortly before they are due
+        private boolean enabled = false;
+        private long minDelayMs = 1000;
+        private Duration maxHorizon = Duration.ofDays(365);
+        private long tickMs = 10;
+        private int wheelSize = 512;
+        private long loadIntervalMs = 10000;
+        private long loadAheadMs = 60000;
+        private int loadBatchSize = 5000;
+        private int maxLoaded = 500000;
+        private long leaseMs = 300000;
+        private long ackIntervalMs = 200;
+        // Spread items due at the same instant over this window (never earlier than sendAt)
+        private long jitterMs = 2000;
+        private double releaseRatePerSecond = 2000;
+        private int releaseBurst = 200;
+    }
+
+    @Data
+    public static class Mongo {
+        // History, filter and search reads; writes, read-your-write lookups and ETag-cached stats use the primary
+        private String readPreference = "secondaryPreferred";
+        // 0 disables the bound; MongoDB requires at least 90 seconds otherwise
+        private long maxStalenessSeconds = 90;
     }
 }
@@ -35,6 +35,8 @@ public class SecurityConfig {
                     "/swagger-resources/**",
                     "/webjars/**"
                 ).permitAll()
+                // DLQ payloads and redrive span all tenants, so they need an admin key
+                .requestMatchers("/api/v1/admin/**").hasRole(ApiKeyAuthFilter.ADMIN_ROLE)
                 // Protected API endpoints
                 .requestMatchers("/api/v1/**").authenticated()
                 .anyRequest().permitAll()
@@ -0,0 +1,58 @@
+package com.streamflow.core.config;
+
+import com.streamflow.core.dto.DlqRedriveRequest;
+import com.streamflow.core.dto.DlqRedriveStatusResponse;
+import com.streamflow.core.dto.DlqSummaryResponse;
+import com.streamflow.core.dto.NotificationRequest;
+import com.streamflow.core.dto.NotificationResponse;
+import com.streamflow.core.dto.NotificationStatsResponse;
+import com.streamflow.core.exception.ErrorResponse;
+import com.streamflow.core.model.DigestItem;
+import com.streamflow.core.model.ScheduledNotification;
+import com.streamflow.core.service.NotificationService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.ExecutableMode;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Reflection hints the AOT engine cannot infer for the native image.
+ *
+ * - DTOs that Jackson (de)serializes outside controller signatures: Kafka payloads (including the
+ *   {@code sendAt} of a scheduled request), the cached byte[] responses and the rate-limit error
+ *   body written by the security filter.
+ * - Documents mapped by MongoTemplate without a repository: {@link ScheduledNotification}, and
+ *   {@link DigestItem}, embedded in digest logs.
+ * - {@link NotificationProperties}, read through SpEL in the {@code @KafkaListener} topics.
+ * - The {@code @Recover} method, which Spring Retry looks up and invokes reflectively.
+ */
+public class StreamflowRuntimeHints implements RuntimeHintsRegistrar {
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(),
+                NotificationRequest.class,
+                NotificationResponse.class,
+                NotificationStatsResponse.class,
+                DlqRedriveRequest.class,
+                DlqRedriveStatusResponse.class,
+                DlqSummaryResponse.class,
+                ErrorResponse.class,
+                ScheduledNotification.class,
+                DigestItem.class);
+
+        hints.reflection()
+                .registerType(NotificationProperties.class, MemberCategory.INVOKE_PUBLIC_METHODS)
+                .registerType(NotificationProperties.Kafka.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        hints.reflection()
+                .registerType(NotificationService.class, MemberCategory.INTROSPECT_DECLARED_METHODS)
+                .registerMethod(ReflectionUtils.findMethod(NotificationService.class, "recover",
+                        RuntimeException.class, ConsumerRecord.class), ExecutableMode.INVOKE);
+    }
+}
@@ -0,0 +1,42 @@
+package com.streamflow.core.config;
+
+import brave.TracingCustomizer;
+import brave.handler.MutableSpan;
+import com.streamflow.core.service.MetricsService;
+import com.streamflow.core.tracing.TailSamplingSpanHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import zipkin2.reporter.BytesEncoder;
+import zipkin2.reporter.BytesMessageSender;
+import zipkin2.reporter.brave.AsyncZipkinSpanHandler;
+
+@Configuration
+@ConditionalOnProperty(prefix = "notification.tracing", name = "tail-sampling-enabled", havingValue = "true", matchIfMissing = true)
+public class TracingConfig {
+
+    // Record every span locally so unsampled traces can still be kept at the tail
+    @Bean
+    public TracingCustomizer alwaysSampleLocalCustomizer() {
+        return builder -> builder.alwaysSampleLocal();
+    }
+
+    // Replaces Boot's Zipkin handler; it reports whatever reaches it and the tail sampler decides what does
+    @Bean
+    public AsyncZipkinSpanHandler tailSampledZipkinSpanHandler(BytesMessageSender sender, BytesEncoder<MutableSpan> encoder) {
+        return AsyncZipkinSpanHandler.newBuilder(sender)
+                .alwaysReportSpans(true)
+                .build(encoder);
+    }
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public TailSamplingSpanHandler tailSamplingSpanHandler(AsyncZipkinSpanHandler tailSampledZipkinSpanHandler,
+                                                           ObjectProvider<MetricsService> metricsService,
+                                                           NotificationProperties properties) {
+        return new TailSamplingSpanHandler(tailSampledZipkinSpanHandler, metricsService, properties);
+    }
+}
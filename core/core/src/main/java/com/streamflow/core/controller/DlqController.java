@@ -0,0 +1,83 @@
+package com.streamflow.core.controller;
+
+import com.streamflow.core.dto.DlqRedriveRequest;
+import com.streamflow.core.dto.DlqRedriveStatusResponse;
+import com.streamflow.core.dto.DlqSummaryResponse;
+import com.streamflow.core.model.DlqRecord;
+import com.streamflow.core.service.DlqService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/dlq")
+@Tag(name = "DLQ Admin", description = "Dead letter queue inspection and redrive APIs")
+@SecurityRequirement(name = "API Key")
+public class DlqController {
+
+    private final DlqService dlqService;
+
+    public DlqController(DlqService dlqService) {
+        this.dlqService = dlqService;
+    }
+
+    @Operation(
+            summary = "Get DLQ failure classification",
+            description = "Count DLQ messages grouped by exception class and status"
+    )
+    @GetMapping("/summary")
+    public ResponseEntity<List<DlqSummaryResponse>> getSummary() {
+        return ResponseEntity.ok(dlqService.getSummary());
+    }
+
+    @Operation(
+            summary = "Browse DLQ messages",
+            description = "Retrieve paginated DLQ index entries, optionally filtered by exception class and status"
+    )
+    @GetMapping
+    public ResponseEntity<Page<DlqRecord>> getRecords(
+            @Parameter(description = "Fully qualified exception class") @RequestParam(required = false) String exceptionClass,
+            @Parameter(description = "PENDING or REDRIVEN", example = "PENDING") @RequestParam(required = false) String status,
+            @Parameter(description = "Page number (0-indexed)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+
+        return ResponseEntity.ok(dlqService.getRecords(exceptionClass, status, PageRequest.of(page, size)));
+    }
+
+    @Operation(
+            summary = "Redrive DLQ messages",
+            description = "Replay pending DLQ messages matching the filters back to the main topic at a bounded rate"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Redrive job queued"),
+            @ApiResponse(responseCode = "400", description = "Invalid request data"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid API key")
+    })
+    @PostMapping("/redrive")
+    public ResponseEntity<DlqRedriveStatusResponse> startRedrive(@Valid @RequestBody DlqRedriveRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(dlqService.startRedrive(request));
+    }
+
+    @Operation(summary = "Get redrive job progress")
+    @GetMapping("/redrive/{jobId}")
+    public ResponseEntity<DlqRedriveStatusResponse> getRedrive(@PathVariable String jobId) {
+        return ResponseEntity.ok(dlqService.getRedrive(jobId));
+    }
+
+    @Operation(summary = "Cancel a redrive job")
+    @DeleteMapping("/redrive/{jobId}")
+    public ResponseEntity<DlqRedriveStatusResponse> cancelRedrive(@PathVariable String jobId) {
+        return ResponseEntity.ok(dlqService.cancelRedrive(jobId));
+    }
+}
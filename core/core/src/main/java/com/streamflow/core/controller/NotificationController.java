@@ -3,10 +3,15 @@ package com.streamflow.core.controller;
 import com.streamflow.core.dto.NotificationRequest;
 import com.streamflow.core.dto.NotificationResponse;
 import com.streamflow.core.dto.NotificationStatsResponse;
+import com.streamflow.core.model.DigestItem;
 import com.streamflow.core.model.NotificationLog;
+import com.streamflow.core.service.NotificationSearchService;
 import com.streamflow.core.service.NotificationService;
+import com.streamflow.core.service.RecentFeedService;
+import com.streamflow.core.service.ResponseCacheService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -18,12 +23,21 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 
+/**
+ * Every endpoint is scoped to the tenant of the calling API key: writes are stamped with it and
+ * reads (Mongo queries, search, the Redis feed and stats) only ever see that tenant's notifications.
+ */
 @RestController
 @RequestMapping("/api/v1/notify")
 @Tag(name = "Notifications", description = "Notification management APIs")
@@ -31,9 +45,15 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationService service;
+    private final ResponseCacheService responseCache;
+    private final NotificationSearchService searchService;
 
-    public NotificationController(NotificationService service) {
+    public NotificationController(NotificationService service,
+                                  ResponseCacheService responseCache,
+                                  NotificationSearchService searchService) {
         this.service = service;
+        this.responseCache = responseCache;
+        this.searchService = searchService;
     }
 
     @Operation(
@@ -44,27 +64,46 @@ public class NotificationController {
             @ApiResponse(responseCode = "200", description = "Notification queued successfully",
                     content = @Content(schema = @Schema(implementation = NotificationResponse.class))),
             @ApiResponse(responseCode = "400", description = "Invalid request data"),
-            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid API key")
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid API key"),
+            @ApiResponse(responseCode = "429", description = "Tenant rate limit exceeded")
     })
     @PostMapping
     public ResponseEntity<NotificationResponse> trigger(
-            @Valid @RequestBody NotificationRequest request) {
+            @Valid @RequestBody NotificationRequest request,
+            @Parameter(hidden = true) @AuthenticationPrincipal String tenant) {
 
+        // Tenant always comes from the API key, never from the client body
+        request.setTenant(tenant);
         NotificationResponse response = service.sendNotification(request);
         return ResponseEntity.ok(response);
     }
 
     @Operation(
             summary = "Get recent notifications",
-            description = "Retrieve the most recent notifications from Redis cache (fast path)"
+            description = "Retrieve the most recent notifications from the Redis sorted-set feed (fast path), newest first. " +
+                    "Supports If-None-Match with the returned ETag."
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Recent notifications retrieved"),
+            @ApiResponse(responseCode = "200", description = "Recent notifications retrieved",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            array = @ArraySchema(schema = @Schema(implementation = String.class)))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit"),
             @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @GetMapping("/recent")
-    public ResponseEntity<List<String>> getRecent() {
-        return ResponseEntity.ok(service.getRecentNotifications());
+    public ResponseEntity<byte[]> getRecent(
+            @Parameter(description = "Only notifications at or after this time (ISO 8601)", example = "2026-01-01T12:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @Parameter(description = "Maximum number of notifications (defaults to notification.redis.recent-notifications-limit)")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(hidden = true) @AuthenticationPrincipal String tenant,
+            WebRequest webRequest) {
+        // The feed is cut at a sliding window, so the result also changes when its oldest entry ages out
+        return cachedJson("recent:" + tenant + ":" + since + ":" + limit, webRequest, () -> {
+            RecentFeedService.Slice slice = service.getRecentNotifications(tenant, since, limit);
+            return ResponseCacheService.expiring(slice.getPayloads(), slice.getValidUntilMillis());
+        });
     }
 
     @Operation(
@@ -78,10 +117,28 @@ public class NotificationController {
     @GetMapping("/history")
     public ResponseEntity<Page<NotificationLog>> getHistory(
             @Parameter(description = "Page number (0-indexed)") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Only this user's notifications (routed to a single shard)") @RequestParam(required = false) String userId,
+            @Parameter(hidden = true) @AuthenticationPrincipal String tenant) {
 
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(service.getNotificationHistory(pageable));
+        return ResponseEntity.ok(service.getNotificationHistory(tenant, userId, pageable));
+    }
+
+    @Operation(
+            summary = "Get the items of a notification",
+            description = "Individual notifications merged into a digest; a plain notification returns itself"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Items retrieved"),
+            @ApiResponse(responseCode = "404", description = "Notification not found")
+    })
+    @GetMapping("/{id}/items")
+    public ResponseEntity<List<DigestItem>> getItems(
+            @Parameter(description = "Notification ID") @PathVariable String id,
+            @Parameter(description = "Owner of the notification (routed to a single shard)") @RequestParam(required = false) String userId,
+            @Parameter(hidden = true) @AuthenticationPrincipal String tenant) {
+        return ResponseEntity.ok(service.getNotificationItems(tenant, id, userId));
     }
 
     @Operation(
@@ -90,8 +147,10 @@ public class NotificationController {
     )
     @GetMapping("/filter/type/{type}")
     public ResponseEntity<List<NotificationLog>> getByType(
-            @Parameter(description = "Notification type", example = "INFO") @PathVariable String type) {
-        return ResponseEntity.ok(service.getNotificationsByType(type));
+            @Parameter(description = "Notification type", example = "INFO") @PathVariable String type,
+            @Parameter(description = "Only this user's notifications (routed to a single shard)") @RequestParam(required = false) String userId,
+            @Parameter(hidden = true) @AuthenticationPrincipal String tenant) {
+        return ResponseEntity.ok(service.getNotificationsByType(tenant, type, userId));
     }
 
     @Operation(
@@ -100,8 +159,9 @@ public class NotificationController {
     )
     @GetMapping("/filter/user/{userId}")
     public ResponseEntity<List<NotificationLog>> getByUser(
-            @Parameter(description = "User ID") @PathVariable String userId) {
-        return ResponseEntity.ok(service.getNotificationsByUser(userId));
+            @Parameter(description = "User ID") @PathVariable String userId,
+            @Parameter(hidden = true) @AuthenticationPrincipal String tenant) {
+        return ResponseEntity.ok(service.getNotificationsByUser(tenant, userId));
     }
 
     @Operation(
@@ -110,8 +170,10 @@ public class NotificationController {
     )
     @GetMapping("/filter/channel/{channel}")
     public ResponseEntity<List<NotificationLog>> getByChannel(
-            @Parameter(description = "Notification channel", example = "EMAIL") @PathVariable String channel) {
-        return ResponseEntity.ok(service.getNotificationsByChannel(channel));
+            @Parameter(description = "Notification channel", example = "EMAIL") @PathVariable String channel,
+            @Parameter(description = "Only this user's notifications (routed to a single shard)") @RequestParam(required = false) String userId,
+            @Parameter(hidden = true) @AuthenticationPrincipal String tenant) {
+        return ResponseEntity.ok(service.getNotificationsByChannel(tenant, channel, userId));
     }
 
     @Operation(
@@ -123,17 +185,76 @@ public class NotificationController {
             @Parameter(description = "Start time (ISO 8601)", example = "2026-01-01T00:00:00")
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @Parameter(description = "End time (ISO 8601)", example = "2026-01-31T23:59:59")
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @Parameter(description = "Only this user's notifications (routed to a single shard)") @RequestParam(required = false) String userId,
+            @Parameter(hidden = true) @AuthenticationPrincipal String tenant) {
 
-        return ResponseEntity.ok(service.getNotificationsByTimeRange(start, end));
+        return ResponseEntity.ok(service.getNotificationsByTimeRange(tenant, start, end, userId));
+    }
+
+    @Operation(
+            summary = "Search notifications",
+            description = "Full-text search over notification messages, with optional type, channel, user and time filters"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching notifications retrieved"),
+            @ApiResponse(responseCode = "400", description = "Blank query or page size too large"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<Page<NotificationLog>> search(
+            @Parameter(description = "Words or \"quoted phrases\" to match", example = "order confirmed") @RequestParam String q,
+            @Parameter(description = "Notification type", example = "INFO") @RequestParam(required = false) String type,
+            @Parameter(description = "Notification channel", example = "EMAIL") @RequestParam(required = false) String channel,
+            @Parameter(description = "User ID") @RequestParam(required = false) String userId,
+            @Parameter(description = "Start time (ISO 8601)", example = "2026-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @Parameter(description = "End time (ISO 8601)", example = "2026-01-31T23:59:59")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @Parameter(description = "Order by relevance (true) or newest first (false)") @RequestParam(defaultValue = "true") boolean relevance,
+            @Parameter(description = "Page number (0-indexed)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "10") int size,
+            @Parameter(hidden = true) @AuthenticationPrincipal String tenant) {
+
+        Pageable pageable = PageRequest.of(page, size);
+        return ResponseEntity.ok(searchService.search(tenant, q, type, channel, userId, start, end, relevance, pageable));
     }
 
     @Operation(
             summary = "Get notification statistics",
-            description = "Retrieve aggregate statistics about notifications (total, counts by type)"
+            description = "Retrieve aggregate statistics about notifications (total, counts by type). " +
+                    "Supports If-None-Match with the returned ETag."
     )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistics retrieved",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = NotificationStatsResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag in If-None-Match")
+    })
     @GetMapping("/stats")
-    public ResponseEntity<NotificationStatsResponse> getStats() {
-        return ResponseEntity.ok(service.getNotificationStats());
+    public ResponseEntity<byte[]> getStats(@Parameter(hidden = true) @AuthenticationPrincipal String tenant,
+                                           WebRequest webRequest) {
+        return cachedJson("stats:" + tenant, webRequest,
+                () -> ResponseCacheService.unchanging(service.getNotificationStats(tenant)));
+    }
+
+    // While the cached body for this version is still valid, both 304 and 200 are served without the loader.
+    // The version is bumped by writes on the primary, so loaders must not read from a lagging secondary
+    private ResponseEntity<byte[]> cachedJson(String cacheKey, WebRequest webRequest,
+                                              Supplier<ResponseCacheService.Loaded> loader) {
+        ResponseCacheService.CachedBody cached = responseCache.getOrCompute(cacheKey, responseCache.currentVersion(), loader);
+        if (cached.getEtag() == null) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(cached.getBody());
+        }
+
+        if (webRequest.checkNotModified(cached.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(cached.getEtag()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(cached.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(cached.getBody());
     }
 }
@@ -0,0 +1,156 @@
+package com.streamflow.core.delivery;
+
+import com.streamflow.core.config.NotificationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Bulkhead for one channel: a bounded queue drained by a fixed set of worker threads that batch
+ * deliveries up to the channel's batch size and call the sender through the channel's circuit
+ * breaker. A full queue rejects instead of blocking, so a slow provider only backs up its own channel.
+ */
+class ChannelDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ChannelDispatcher.class);
+    private static final long POLL_MILLIS = 100;
+
+    private final String channel;
+    private final ChannelSender sender;
+    private final CircuitBreaker circuitBreaker;
+    private final BlockingQueue<Delivery> queue;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final ExecutorService workers;
+    private final BiConsumer<List<Delivery>, Outcome> onComplete;
+    private volatile boolean running = true;
+
+    enum Outcome { DELIVERED, FAILED, SHORT_CIRCUITED }
+
+    ChannelDispatcher(String channel,
+                      ChannelSender sender,
+                      NotificationProperties.DeliveryChannel config,
+                      BiConsumer<List<Delivery>, Outcome> onComplete) {
+        this.channel = channel;
+        this.sender = sender;
+        this.circuitBreaker = new CircuitBreaker(config.getBreakerFailureRateThreshold(),
+                config.getBreakerWindowSize(), config.getBreakerMinimumCalls(), config.getBreakerOpenMs());
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.batchSize = Math.max(1, Math.min(config.getMaxBatchSize(), sender.maxBatchSize()));
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(config.getBatchLingerMs());
+        this.onComplete = onComplete;
+
+        String threadName = "delivery-" + channel.toLowerCase(Locale.ROOT);
+        this.workers = Executors.newFixedThreadPool(config.getConcurrency(), r -> {
+            Thread thread = new Thread(r, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < config.getConcurrency(); i++) {
+            workers.execute(this::run);
+        }
+    }
+
+    /**
+     * @return false if the channel's queue is full
+     */
+    boolean offer(Delivery delivery) {
+        return running && queue.offer(delivery);
+    }
+
+    int getQueueDepth() {
+        return queue.size();
+    }
+
+    CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    private void run() {
+        List<Delivery> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Delivery first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                deliver(new ArrayList<>(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Delivery worker for {} failed", channel, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Take what is already queued, then wait up to the linger time for the batch to fill
+    private void fill(List<Delivery> batch) throws InterruptedException {
+        if (batchSize == 1) {
+            return;
+        }
+        queue.drainTo(batch, batchSize - batch.size());
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            Delivery next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    private void deliver(List<Delivery> batch) {
+        long generation = circuitBreaker.tryAcquire();
+        if (generation == CircuitBreaker.REJECTED) {
+            onComplete.accept(batch, Outcome.SHORT_CIRCUITED);
+            return;
+        }
+        try {
+            sender.send(batch);
+            circuitBreaker.onSuccess(generation);
+            onComplete.accept(batch, Outcome.DELIVERED);
+        } catch (InterruptedException e) {
+            circuitBreaker.onFailure(generation);
+            onComplete.accept(batch, Outcome.FAILED);
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            circuitBreaker.onFailure(generation);
+            log.warn("{} delivery of {} notification(s) failed: {}", channel, batch.size(), e.getMessage());
+            onComplete.accept(batch, Outcome.FAILED);
+        }
+    }
+
+    /**
+     * Stops accepting work; the workers keep draining what is already queued.
+     */
+    void stop() {
+        running = false;
+        workers.shutdown();
+    }
+
+    void awaitTermination(long timeoutMillis) throws InterruptedException {
+        if (!workers.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            log.warn("{} delivery workers did not drain in time, {} queued", channel, queue.size());
+            workers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.streamflow.core.delivery;
+
+import java.util.List;
+
+/**
+ * SPI for a delivery provider. Register an implementation as a Spring bean to handle a channel.
+ * With {@code notification.delivery.stub-senders-enabled}, channels without one fall back to a
+ * configurable {@link StubChannelSender}; otherwise delivery fails to start.
+ *
+ * Senders are called from the channel's own worker threads, never from the Kafka listener.
+ */
+public interface ChannelSender {
+
+    /**
+     * @return channel this sender handles, e.g. EMAIL, SMS, PUSH or SYSTEM
+     */
+    String channel();
+
+    /**
+     * @return largest batch the provider accepts in one call; 1 if it has no batch API
+     */
+    default int maxBatchSize() {
+        return 1;
+    }
+
+    /**
+     * Delivers the whole batch or throws; a thrown exception fails every delivery in it.
+     */
+    void send(List<Delivery> batch) throws Exception;
+}
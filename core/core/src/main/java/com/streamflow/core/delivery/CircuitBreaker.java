@@ -0,0 +1,132 @@
+package com.streamflow.core.delivery;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count-based circuit breaker.
+ *
+ * CLOSED records the outcome of the last {@code windowSize} calls and opens once at least
+ * {@code minimumCalls} were recorded and the failure rate reaches the threshold. OPEN rejects
+ * calls until {@code openMillis} have passed, then HALF_OPEN lets a single trial call through:
+ * success closes the breaker with a fresh window, failure opens it again.
+ *
+ * Every state change starts a new generation, and a call reports its outcome with the generation
+ * it was admitted under. Outcomes from an older generation are ignored, so a slow call admitted
+ * while CLOSED can't be taken for the HALF_OPEN trial, or count against a freshly closed window.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** Returned by {@link #tryAcquire()} when the call must not proceed. */
+    public static final long REJECTED = -1;
+
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openNanos;
+
+    private final boolean[] window;
+    private int next;
+    private int calls;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(double failureRateThreshold, int windowSize, int minimumCalls, long openMillis) {
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1 || windowSize < 1 || minimumCalls < 1) {
+            throw new IllegalArgumentException("Threshold must be in (0, 1], window and minimum calls positive");
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    /**
+     * @return the generation the call is admitted under, or {@link #REJECTED}; an admitted call must
+     * then be reported via {@link #onSuccess(long)} or {@link #onFailure(long)} with that generation
+     */
+    public synchronized long tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return generation;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return REJECTED;
+                }
+                state = State.HALF_OPEN;
+                generation++;
+                trialInFlight = true;
+                return generation;
+            default:
+                if (trialInFlight) {
+                    return REJECTED;
+                }
+                trialInFlight = true;
+                return generation;
+        }
+    }
+
+    public synchronized void onSuccess(long admittedGeneration) {
+        if (admittedGeneration != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            close();
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure(long admittedGeneration) {
+        if (admittedGeneration != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (calls >= minimumCalls && failures >= failureRateThreshold * calls) {
+            open();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (calls == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        window[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        generation++;
+        openedAt = System.nanoTime();
+        trialInFlight = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        generation++;
+        trialInFlight = false;
+        next = 0;
+        calls = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.streamflow.core.delivery;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class Delivery {
+    String notificationId;
+    String userId;
+    String tenant;
+    String channel;
+    String type;
+    String message;
+    int attempt;    // 1 for the first try
+}
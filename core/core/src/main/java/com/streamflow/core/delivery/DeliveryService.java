@@ -0,0 +1,326 @@
+package com.streamflow.core.delivery;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamflow.core.config.NotificationProperties;
+import com.streamflow.core.dto.NotificationRequest;
+import com.streamflow.core.model.NotificationLog;
+import com.streamflow.core.service.DlqService;
+import com.streamflow.core.service.MetricsService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Hands persisted notifications to their channel and records the outcome on the log entry.
+ *
+ * Every channel has its own {@link ChannelDispatcher}, so EMAIL keeps flowing while an SMS
+ * gateway is slow or its circuit is open. Dispatch never blocks the caller: a full channel
+ * rejects the notification immediately.
+ *
+ * Nothing is dropped on failure. A failed, rejected or short-circuited attempt is stored with a
+ * {@code nextDeliveryAt} after an exponential backoff, and a sweep on its own thread re-dispatches
+ * due entries. Every attempt in flight also carries a lease in {@code nextDeliveryAt}, so work lost
+ * with a crashed node is picked up again. Once {@code maxAttempts} have failed the sweep sends the
+ * notification to the DLQ, where it can be inspected and redriven. Delivery is at-least-once.
+ */
+@Service
+public class DeliveryService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryService.class);
+    private static final String EXHAUSTED = "DeliveryAttemptsExhausted";
+
+    private final NotificationProperties.Delivery config;
+    private final MongoTemplate mongoTemplate;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final DlqService dlqService;
+    private final ObjectMapper objectMapper;
+    private final MetricsService metricsService;
+    private final Map<String, ChannelDispatcher> dispatchers = new LinkedHashMap<>();
+    private final ScheduledExecutorService retryExecutor;
+
+    public DeliveryService(NotificationProperties properties,
+                           List<ChannelSender> senders,
+                           MongoTemplate mongoTemplate,
+                           KafkaTemplate<String, String> kafkaTemplate,
+                           DlqService dlqService,
+                           ObjectMapper objectMapper,
+                           MetricsService metricsService) {
+        this.config = properties.getDelivery();
+        this.mongoTemplate = mongoTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.dlqService = dlqService;
+        this.objectMapper = objectMapper;
+        this.metricsService = metricsService;
+
+        if (!config.isEnabled()) {
+            this.retryExecutor = null;
+            return;
+        }
+
+        Map<String, ChannelSender> sendersByChannel = new LinkedHashMap<>();
+        for (ChannelSender sender : senders) {
+            if (sendersByChannel.put(normalize(sender.channel()), sender) != null) {
+                throw new IllegalStateException("More than one ChannelSender for channel " + sender.channel());
+            }
+        }
+
+        Map<String, NotificationProperties.DeliveryChannel> channels = new LinkedHashMap<>();
+        config.getChannels().forEach((name, channel) -> channels.put(normalize(name), channel));
+        sendersByChannel.keySet().forEach(name -> channels.putIfAbsent(name, new NotificationProperties.DeliveryChannel()));
+
+        // A stub reports success without sending, which would mark real notifications DELIVERED
+        List<String> unhandled = channels.keySet().stream().filter(name -> !sendersByChannel.containsKey(name)).toList();
+        if (!unhandled.isEmpty() && !config.isStubSendersEnabled()) {
+            throw new IllegalStateException("Delivery is enabled but no ChannelSender handles " + unhandled
+                    + "; register senders for them or set notification.delivery.stub-senders-enabled for local runs");
+        }
+
+        channels.forEach((name, channel) -> {
+            ChannelSender sender = sendersByChannel.getOrDefault(name,
+                    new StubChannelSender(name, channel.getStubLatencyMs(), channel.getStubFailureRate()));
+            ChannelDispatcher dispatcher = new ChannelDispatcher(name, sender, channel,
+                    (batch, outcome) -> onComplete(name, batch, outcome));
+            dispatchers.put(name, dispatcher);
+            metricsService.registerDeliveryChannel(name, dispatcher::getQueueDepth,
+                    () -> dispatcher.getCircuitBreaker().getState().ordinal());
+            log.info("Delivery channel {} using {}", name, sender.getClass().getSimpleName());
+        });
+
+        // Own thread: a DLQ send during a Kafka outage must not hold up the shared scheduler
+        this.retryExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "delivery-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        retryExecutor.scheduleWithFixedDelay(this::sweepSafely,
+                config.getRetrySweepIntervalMs(), config.getRetrySweepIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Marks a notification about to be saved as pending, with a lease covering its first attempt.
+     */
+    public void markPending(NotificationLog notification) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        notification.setDeliveryStatus(DeliveryStatus.PENDING.name());
+        notification.setNextDeliveryAt(LocalDateTime.now().plus(config.getRetryLeaseMs(), ChronoUnit.MILLIS));
+    }
+
+    /**
+     * Queues a persisted notification on its channel. Returns immediately.
+     */
+    public void dispatch(NotificationLog notification) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        String channel = channelOf(notification);
+        ChannelDispatcher dispatcher = dispatchers.get(channel);
+        Delivery delivery = Delivery.builder()
+                .notificationId(notification.getId())
+                .userId(notification.getUserId())
+                .tenant(notification.getTenant())
+                .channel(channel)
+                .type(notification.getType())
+                .message(notification.getMessage())
+                .attempt(failedAttempts(notification) + 1)
+                .build();
+
+        if (dispatcher == null) {
+            // Retrying can't help an unknown channel: straight to the DLQ
+            metricsService.incrementDeliveries("unknown", "unroutable", 1);
+            recordFailure(List.of(delivery), DeliveryStatus.FAILED, true);
+            return;
+        }
+        if (!dispatcher.offer(delivery)) {
+            metricsService.incrementDeliveries(channel, "rejected", 1);
+            recordFailure(List.of(delivery), DeliveryStatus.REJECTED, false);
+        }
+    }
+
+    private void onComplete(String channel, List<Delivery> batch, ChannelDispatcher.Outcome outcome) {
+        metricsService.incrementDeliveries(channel, outcome.name().toLowerCase(Locale.ROOT), batch.size());
+        if (outcome == ChannelDispatcher.Outcome.DELIVERED) {
+            updateStatus(batch, new Update()
+                    .set("deliveryStatus", DeliveryStatus.DELIVERED.name())
+                    .set("deliveredAt", LocalDateTime.now())
+                    .unset("nextDeliveryAt"));
+        } else {
+            recordFailure(batch, DeliveryStatus.FAILED, false);
+        }
+    }
+
+    // Exhausted entries are made due immediately, so the sweep moves them to the DLQ off the delivery threads
+    private void recordFailure(Collection<Delivery> batch, DeliveryStatus status, boolean giveUp) {
+        Map<Integer, List<Delivery>> byAttempt = batch.stream().collect(Collectors.groupingBy(Delivery::getAttempt));
+        byAttempt.forEach((attempt, deliveries) -> {
+            boolean exhausted = giveUp || attempt >= config.getMaxAttempts();
+            long delayMs = exhausted ? 0 : backoffMs(attempt);
+            updateStatus(deliveries, new Update()
+                    .set("deliveryStatus", status.name())
+                    .set("deliveryAttempts", exhausted ? Math.max(attempt, config.getMaxAttempts()) : attempt)
+                    .set("nextDeliveryAt", LocalDateTime.now().plus(delayMs, ChronoUnit.MILLIS)));
+        });
+    }
+
+    private long backoffMs(int attempt) {
+        long backoff = config.getRetryBackoffMs() << Math.min(attempt - 1, 30);
+        return Math.min(backoff, config.getRetryMaxBackoffMs());
+    }
+
+    // One write per batch, not per notification; the userIds let a sharded cluster target only the owning shards
+    private void updateStatus(Collection<Delivery> batch, Update update) {
+        List<String> ids = batch.stream().map(Delivery::getNotificationId).toList();
+        List<String> userIds = batch.stream().map(Delivery::getUserId).distinct().toList();
+        try {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("userId").in(userIds).and("_id").in(ids)), update, NotificationLog.class);
+        } catch (RuntimeException e) {
+            // The lease set at write time still expires, so the sweep retries these anyway
+            log.warn("Failed to record delivery outcome for {} notification(s)", ids.size(), e);
+        }
+    }
+
+    // ========== RETRY SWEEP ==========
+
+    // A scheduled task that throws is never run again
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            log.error("Delivery retry sweep failed", e);
+        }
+    }
+
+    void sweep() {
+        int batchSize = config.getRetrySweepBatchSize();
+        List<NotificationLog> due;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            due = mongoTemplate.find(Query.query(Criteria.where("nextDeliveryAt").lte(now))
+                    .with(Sort.by(Sort.Direction.ASC, "nextDeliveryAt"))
+                    .limit(batchSize), NotificationLog.class);
+
+            List<NotificationLog> exhausted = new ArrayList<>();
+            for (NotificationLog candidate : due) {
+                NotificationLog claimed = claim(candidate, now);
+                if (claimed == null) {
+                    continue; // taken by another node, or completed meanwhile
+                }
+                if (failedAttempts(claimed) >= config.getMaxAttempts()) {
+                    exhausted.add(claimed);
+                } else {
+                    metricsService.incrementDeliveries(channelOf(claimed), "retried", 1);
+                    dispatch(claimed);
+                }
+            }
+            if (!exhausted.isEmpty() && !deadLetter(exhausted)) {
+                return; // Kafka is down; the leases bring them back later
+            }
+        } while (due.size() == batchSize);
+    }
+
+    // Moving nextDeliveryAt out by a lease claims the entry: a concurrent sweep elsewhere no longer matches it
+    private NotificationLog claim(NotificationLog candidate, LocalDateTime now) {
+        Query query = Query.query(Criteria.where("_id").is(candidate.getId())
+                .and("userId").is(candidate.getUserId())
+                .and("timestamp").is(candidate.getTimestamp())
+                .and("nextDeliveryAt").is(candidate.getNextDeliveryAt()));
+        Update update = new Update()
+                .set("deliveryStatus", DeliveryStatus.PENDING.name())
+                .set("nextDeliveryAt", now.plus(config.getRetryLeaseMs(), ChronoUnit.MILLIS));
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), NotificationLog.class);
+    }
+
+    private boolean deadLetter(List<NotificationLog> notifications) {
+        try {
+            List<CompletableFuture<?>> sends = new ArrayList<>(notifications.size());
+            for (NotificationLog notification : notifications) {
+                String channel = channelOf(notification);
+                sends.add(kafkaTemplate.send(dlqService.toDlqRecord("delivery:" + channel, notification.getUserId(),
+                        objectMapper.writeValueAsString(toRequest(notification)), EXHAUSTED,
+                        "Delivery on " + channel + " failed " + failedAttempts(notification) + " times",
+                        failedAttempts(notification))));
+            }
+            CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0]))
+                    .get(config.getDeadLetterSendTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (JsonProcessingException | ExecutionException | TimeoutException | RuntimeException e) {
+            log.warn("Failed to send {} exhausted deliveries to the DLQ: {}", notifications.size(), e.getMessage());
+            return false;
+        }
+
+        List<String> ids = notifications.stream().map(NotificationLog::getId).toList();
+        List<String> userIds = notifications.stream().map(NotificationLog::getUserId).distinct().toList();
+        mongoTemplate.updateMulti(Query.query(Criteria.where("userId").in(userIds).and("_id").in(ids)),
+                new Update().set("deliveryStatus", DeliveryStatus.DEAD_LETTERED.name()).unset("nextDeliveryAt"),
+                NotificationLog.class);
+        notifications.forEach(notification -> {
+            metricsService.incrementDeliveries(channelOf(notification), "dead_lettered", 1);
+            metricsService.incrementDlqMessages();
+        });
+        log.warn("Sent {} notification(s) to the DLQ after {} failed delivery attempts", ids.size(), config.getMaxAttempts());
+        return true;
+    }
+
+    // Redriving the DLQ record replays it through the consumer as a new notification
+    private static NotificationRequest toRequest(NotificationLog notification) {
+        NotificationRequest request = new NotificationRequest();
+        request.setMessage(notification.getMessage());
+        request.setType(notification.getType());
+        request.setChannel(notification.getChannel());
+        request.setUserId(notification.getUserId());
+        request.setTenant(notification.getTenant());
+        return request;
+    }
+
+    private String channelOf(NotificationLog notification) {
+        return normalize(notification.getChannel() != null ? notification.getChannel() : config.getDefaultChannel());
+    }
+
+    private static int failedAttempts(NotificationLog notification) {
+        return notification.getDeliveryAttempts() != null ? notification.getDeliveryAttempts() : 0;
+    }
+
+    private static String normalize(String channel) {
+        return channel.trim().toUpperCase(Locale.ROOT);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (retryExecutor != null) {
+            retryExecutor.shutdown();
+        }
+        dispatchers.values().forEach(ChannelDispatcher::stop);
+        long deadline = System.currentTimeMillis() + config.getShutdownTimeoutMs();
+        for (ChannelDispatcher dispatcher : dispatchers.values()) {
+            dispatcher.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()));
+        }
+    }
+}
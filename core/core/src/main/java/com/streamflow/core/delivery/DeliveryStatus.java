@@ -0,0 +1,9 @@
+package com.streamflow.core.delivery;
+
+public enum DeliveryStatus {
+    PENDING,       // persisted and queued on its channel (or claimed for a retry)
+    DELIVERED,
+    FAILED,        // provider error, open circuit or unknown channel; retried until maxAttempts
+    REJECTED,      // channel queue full (bulkhead); retried until maxAttempts
+    DEAD_LETTERED  // attempts exhausted, handed to the DLQ
+}
@@ -0,0 +1,42 @@
+package com.streamflow.core.delivery;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in provider with configurable latency and failure rate, for local runs and load tests.
+ */
+public class StubChannelSender implements ChannelSender {
+
+    private final String channel;
+    private final long latencyMs;
+    private final double failureRate;
+
+    public StubChannelSender(String channel, long latencyMs, double failureRate) {
+        this.channel = channel;
+        this.latencyMs = latencyMs;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public String channel() {
+        return channel;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        // Batch size is left to the channel configuration
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void send(List<Delivery> batch) throws Exception {
+        // One simulated round trip per call, batched or not
+        if (latencyMs > 0) {
+            Thread.sleep(latencyMs);
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new IllegalStateException("Simulated " + channel + " provider failure");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.streamflow.core.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Schema(description = "Selects pending DLQ messages to replay onto the main topic")
+public class DlqRedriveRequest {
+
+    @Schema(description = "Only replay messages that failed with this exception class",
+            example = "com.fasterxml.jackson.core.JsonParseException")
+    private String exceptionClass;
+
+    @Schema(description = "Only replay messages that originally came from this topic", example = "user-notifications")
+    private String originalTopic;
+
+    @Schema(description = "Only replay messages that failed at or after this time (ISO 8601)")
+    private LocalDateTime failedAfter;
+
+    @Schema(description = "Only replay messages that failed before this time (ISO 8601)")
+    private LocalDateTime failedBefore;
+
+    @Schema(description = "Explicit DLQ record ids to replay, combined with the other filters")
+    private List<String> ids;
+
+    @Schema(description = "Stop after this many messages", example = "100000")
+    @Min(value = 1, message = "maxMessages must be positive")
+    private Long maxMessages;
+
+    @Schema(description = "Replay rate in messages per second (defaults to notification.dlq.redrive-rate-per-second)", example = "500")
+    @Min(value = 1, message = "ratePerSecond must be positive")
+    private Integer ratePerSecond;
+}
@@ -0,0 +1,19 @@
+package com.streamflow.core.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class DlqRedriveStatusResponse {
+    private String jobId;
+    private String status;      // QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED
+    private long matched;
+    private long sent;
+    private int ratePerSecond;
+    private String detail;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
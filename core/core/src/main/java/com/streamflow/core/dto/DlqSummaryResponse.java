@@ -0,0 +1,16 @@
+package com.streamflow.core.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class DlqSummaryResponse {
+    private String exceptionClass;
+    private String status;
+    private long count;
+    private LocalDateTime oldestFailedAt;
+    private LocalDateTime newestFailedAt;
+}
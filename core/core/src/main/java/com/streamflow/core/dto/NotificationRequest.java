@@ -4,6 +4,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 @Data
 @Schema(description = "Request to send a notification")
 public class NotificationRequest {
@@ -20,4 +22,11 @@ public class NotificationRequest {
 
     @Schema(description = "Target user ID", example = "user-123")
     private String userId;
+
+    @Schema(description = "Owning tenant, resolved from the API key", accessMode = Schema.AccessMode.READ_ONLY)
+    private String tenant;
+
+    @Schema(description = "Deliver at this time (UTC, ISO 8601); omit or use a past time to send now",
+            example = "2026-01-01T09:00:00")
+    private LocalDateTime sendAt;
 }
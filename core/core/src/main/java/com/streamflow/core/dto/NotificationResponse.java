@@ -14,6 +14,7 @@ public class NotificationResponse {
     private String type;        // ← ADD THIS
     private String channel;     // ← ADD THIS
     private String userId;      // ← ADD THIS
+    private String tenant;
     private String detail;
     private LocalDateTime queuedAt;
 }
@@ -0,0 +1,19 @@
+package com.streamflow.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One original notification folded into a digest {@link NotificationLog}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DigestItem {
+    private String message;
+    private String type;
+    private LocalDateTime timestamp;
+}
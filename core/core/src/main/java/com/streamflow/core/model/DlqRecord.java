@@ -0,0 +1,51 @@
+package com.streamflow.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Classification index entry for one message on the DLQ topic.
+ * The id is {@code <dlqPartition>-<dlqOffset>} so re-consuming the DLQ never duplicates entries.
+ */
+@Document(collection = "dlq_index")
+@CompoundIndex(name = "classification_idx", def = "{'exceptionClass': 1, 'status': 1, 'failedAt': 1}")
+// Browsing by status alone, newest first; classification_idx can't serve it without an exceptionClass
+@CompoundIndex(name = "status_failed_idx", def = "{'status': 1, 'failedAt': 1}")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DlqRecord {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_REDRIVEN = "REDRIVEN";
+
+    @Id
+    private String id;
+
+    private int dlqPartition;
+    private long dlqOffset;
+
+    // Where the message originally failed
+    private String originalTopic;
+    private int originalPartition;
+    private long originalOffset;
+
+    // Failure classification
+    private String exceptionClass;
+    private String exceptionMessage;
+    private int attempts;
+    private int redriveCount;
+    private LocalDateTime failedAt;
+
+    private String payload;
+    private String status;       // PENDING, REDRIVEN
+    private LocalDateTime redrivenAt;
+}
@@ -4,11 +4,26 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
+/**
+ * Laid out for sharding on {@code (userId, timestamp)}: one user's notifications stay together and
+ * are ordered by time, and the timestamp spreads a single heavy user over several chunks. The
+ * matching index doubles as the shard-key index, and {@link Sharded} makes replace-style saves
+ * include the key so they are routed to a single shard. Neither field changes after insert.
+ * Reads are always scoped to a tenant; those without a userId use the (tenant, timestamp) index.
+ */
 @Document(collection = "logs")
+@CompoundIndex(name = "user_timestamp_idx", def = "{'userId': 1, 'timestamp': 1}")
+@CompoundIndex(name = "tenant_timestamp_idx", def = "{'tenant': 1, 'timestamp': 1}")
+@Sharded(shardKey = {"userId", "timestamp"}, immutableKey = true)
 @Data
 @NoArgsConstructor
 public class NotificationLog {
@@ -16,25 +31,40 @@ public class NotificationLog {
     @Id
     private String id;
 
+    @TextIndexed
     private String message;
 
     // New fields for richer domain
     private String type;       // INFO, WARN, ERROR
     private String channel;    // EMAIL, SMS, PUSH, etc.
     private String userId;     // optional: who this belongs to
+    private String tenant;     // resolved from the API key that submitted it
 
     private LocalDateTime timestamp;
 
+    private String deliveryStatus;  // see DeliveryStatus; null when delivery is disabled
+    private LocalDateTime deliveredAt;
+    private Integer deliveryAttempts;  // failed attempts so far
+    // Present only while a delivery is unconfirmed or waiting to be retried; the retry sweep picks up entries past it
+    @Indexed(name = "delivery_retry_idx", partialFilter = "{ 'nextDeliveryAt': { $exists: true } }")
+    private LocalDateTime nextDeliveryAt;
+
+    // Set on digests only: the individual notifications merged into this one
+    private Integer itemCount;
+    private List<DigestItem> items;
+
     @Builder
     public NotificationLog(String message,
                            String type,
                            String channel,
                            String userId,
+                           String tenant,
                            LocalDateTime timestamp) {
         this.message = message;
         this.type = type;
         this.channel = channel;
         this.userId = userId;
+        this.tenant = tenant;
         this.timestamp = (timestamp != null) ? timestamp : LocalDateTime.now();
     }
 
@@ -0,0 +1,43 @@
+package com.streamflow.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A notification waiting for its {@code sendAt}. Loaded into a node's timing wheel shortly before
+ * it is due and deleted once released to Kafka.
+ */
+@Document(collection = "scheduled_notifications")
+@CompoundIndex(name = "due_idx", def = "{'status': 1, 'dueAt': 1}")
+@CompoundIndex(name = "owner_idx", def = "{'owner': 1, 'status': 1}")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledNotification {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_LOADED = "LOADED";
+
+    @Id
+    private String id;
+
+    private String payload;      // NotificationRequest JSON, published as is
+    private String userId;
+    private String tenant;
+    private LocalDateTime sendAt;
+    private long dueAt;          // sendAt in epoch millis, for range scans
+
+    private String status;       // PENDING, LOADED
+    private String owner;        // node holding it in memory while LOADED
+    private String claimToken;
+    private long leaseUntil;     // epoch millis; another node may reclaim it after this
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,408 @@
+package com.streamflow.core.outbox;
+
+import com.streamflow.core.config.NotificationProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable, memory-mapped append-only log used as a local outbox in front of Kafka.
+ *
+ * The log is split into fixed-size segment files named after their global base offset.
+ * Each record is laid out as {@code [int length][int crc32c][long appendedAtMillis][payload]},
+ * with the checksum covering the timestamp and payload. A crash can leave any mix of a record's
+ * pages on disk, so reads stop at the first record whose checksum does not match: recovery
+ * truncates a torn tail there and new appends overwrite it. Appends are group-committed: a
+ * flusher thread forces the dirty range every {@code fsyncIntervalMs} and wakes up all callers
+ * whose records are now on disk, so a torn record was never acknowledged. The relay position is
+ * kept in a small checkpoint file.
+ */
+@Component
+@ConditionalOnProperty(prefix = "notification.outbox", name = "enabled", havingValue = "true")
+public class OutboxLog {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxLog.class);
+
+    private static final int CRC_OFFSET = Integer.BYTES;
+    private static final int TIMESTAMP_OFFSET = CRC_OFFSET + Integer.BYTES;
+    private static final int HEADER_BYTES = TIMESTAMP_OFFSET + Long.BYTES;
+    private static final int ROLL_MARKER = -1;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "relay.checkpoint";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long appendTimeoutMs;
+    private final FileChannel checkpointChannel;
+    private final ScheduledExecutorService flusher;
+    private final Map<Long, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+
+    // Writer state, guarded by writeLock
+    private final Object writeLock = new Object();
+    private MappedByteBuffer writeSegment;
+    private long writeSegmentBase;
+    private long writePosition;
+    private long dirtyFrom;
+
+    // Durability and relay state
+    private final Object flushMonitor = new Object();
+    private volatile long flushedPosition;
+    private volatile long committedPosition;
+    private final AtomicLong pendingRecords = new AtomicLong();
+    private volatile boolean closed;
+
+    public OutboxLog(NotificationProperties properties) throws IOException {
+        NotificationProperties.Outbox config = properties.getOutbox();
+        this.directory = Paths.get(config.getDirectory());
+        this.segmentBytes = config.getSegmentBytes();
+        this.appendTimeoutMs = config.getAppendTimeoutMs();
+
+        Files.createDirectories(directory);
+        this.checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        recover();
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "outbox-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, config.getFsyncIntervalMs());
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // ========== WRITE PATH ==========
+
+    /**
+     * Appends a payload and blocks until the flusher has forced it to disk.
+     *
+     * @return the log position right after the appended record
+     */
+    public long append(String payload) {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        int recordBytes = HEADER_BYTES + bytes.length;
+        if (bytes.length == 0 || recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("Outbox payload must be between 1 and "
+                    + (segmentBytes - HEADER_BYTES) + " bytes");
+        }
+
+        long end;
+        synchronized (writeLock) {
+            if (closed) {
+                throw new IllegalStateException("Outbox is closed");
+            }
+            int offset = (int) (writePosition - writeSegmentBase);
+            if (segmentBytes - offset < recordBytes) {
+                roll(offset);
+                offset = 0;
+            }
+            long appendedAt = System.currentTimeMillis();
+            writeSegment.putInt(offset + CRC_OFFSET, checksum(appendedAt, bytes));
+            writeSegment.putLong(offset + TIMESTAMP_OFFSET, appendedAt);
+            writeSegment.put(offset + HEADER_BYTES, bytes);
+            writeSegment.putInt(offset, bytes.length);
+
+            writePosition += recordBytes;
+            end = writePosition;
+            pendingRecords.incrementAndGet();
+        }
+
+        awaitFlushed(end);
+        return end;
+    }
+
+    private void roll(int offset) {
+        if (segmentBytes - offset >= Integer.BYTES) {
+            writeSegment.putInt(offset, ROLL_MARKER);
+        }
+        writeSegmentBase += segmentBytes;
+        writePosition = writeSegmentBase;
+        writeSegment = segment(writeSegmentBase, true);
+    }
+
+    private void awaitFlushed(long position) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(appendTimeoutMs);
+        synchronized (flushMonitor) {
+            while (flushedPosition < position) {
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    throw new IllegalStateException("Timed out waiting for outbox fsync");
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(flushMonitor, remainingNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for outbox fsync", e);
+                }
+            }
+        }
+    }
+
+    // ========== GROUP COMMIT ==========
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Outbox flush failed", e);
+        }
+    }
+
+    void flush() {
+        long from;
+        long to;
+        synchronized (writeLock) {
+            from = dirtyFrom;
+            to = writePosition;
+            dirtyFrom = to;
+        }
+        if (to == from) {
+            return;
+        }
+
+        // The dirty range may span a roll, so force every segment it touches
+        for (long base = segmentBase(from); base < to; base += segmentBytes) {
+            int start = (int) (Math.max(from, base) - base);
+            int stop = (int) (Math.min(to, base + segmentBytes) - base);
+            MappedByteBuffer segment = segments.get(base);
+            if (segment != null && stop > start) {
+                segment.force(start, stop - start);
+            }
+        }
+
+        synchronized (flushMonitor) {
+            flushedPosition = to;
+            flushMonitor.notifyAll();
+        }
+    }
+
+    // ========== RELAY PATH ==========
+
+    /**
+     * Reads up to {@code maxRecords} durable records starting at the relay checkpoint.
+     * Only the relay thread may call this.
+     */
+    public List<OutboxEntry> readBatch(int maxRecords) {
+        List<OutboxEntry> batch = new ArrayList<>();
+        scan(committedPosition, flushedPosition, maxRecords, batch);
+        return batch;
+    }
+
+    /**
+     * Moves the relay checkpoint past {@code records} relayed entries and drops fully drained segments.
+     */
+    public void commit(long position, int records) {
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, position);
+            checkpointChannel.write(buffer, 0);
+            checkpointChannel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write outbox checkpoint", e);
+        }
+        committedPosition = position;
+        pendingRecords.addAndGet(-records);
+        deleteSegmentsBelow(segmentBase(position));
+    }
+
+    public long getPendingRecords() {
+        return pendingRecords.get();
+    }
+
+    /**
+     * @return append time of the oldest record not yet relayed, or 0 when the outbox is drained
+     */
+    public long getOldestPendingAppendedAt() {
+        List<OutboxEntry> head = new ArrayList<>(1);
+        scan(committedPosition, flushedPosition, 1, head);
+        return head.isEmpty() ? 0 : head.get(0).getAppendedAt();
+    }
+
+    // ========== RECOVERY ==========
+
+    private void recover() throws IOException {
+        List<Long> bases = listSegmentBases();
+        long checkpoint = readCheckpoint();
+        if (!bases.isEmpty() && checkpoint < bases.get(0)) {
+            checkpoint = bases.get(0);
+        }
+
+        committedPosition = checkpoint;
+        long[] recovered = scan(checkpoint, Long.MAX_VALUE, Integer.MAX_VALUE, null);
+
+        writePosition = recovered[0];
+        writeSegmentBase = segmentBase(writePosition);
+        writeSegment = segment(writeSegmentBase, true);
+        dirtyFrom = writePosition;
+        flushedPosition = writePosition;
+        pendingRecords.set(recovered[1]);
+
+        deleteSegmentsBelow(segmentBase(checkpoint));
+        if (recovered[1] > 0) {
+            log.info("Recovered outbox with {} pending records from {}", recovered[1], directory);
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (checkpointChannel.size() < Long.BYTES) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        checkpointChannel.read(buffer, 0);
+        return buffer.getLong(0);
+    }
+
+    // ========== SEGMENTS ==========
+
+    /**
+     * Walks records from {@code from} until {@code limit}, end of written data, the first record that
+     * fails its checksum or {@code maxRecords}.
+     *
+     * @return {@code [nextPosition, recordsVisited]}
+     */
+    private long[] scan(long from, long limit, int maxRecords, List<OutboxEntry> sink) {
+        long position = from;
+        long visited = 0;
+        while (position < limit && visited < maxRecords) {
+            long base = segmentBase(position);
+            MappedByteBuffer segment = segment(base, false);
+            if (segment == null) {
+                break;
+            }
+            int offset = (int) (position - base);
+            if (segmentBytes - offset < HEADER_BYTES) {
+                position = base + segmentBytes;
+                continue;
+            }
+
+            int length = segment.getInt(offset);
+            if (length == ROLL_MARKER) {
+                position = base + segmentBytes;
+                continue;
+            }
+            if (length <= 0 || offset + HEADER_BYTES + length > segmentBytes) {
+                break;
+            }
+
+            long appendedAt = segment.getLong(offset + TIMESTAMP_OFFSET);
+            byte[] payload = new byte[length];
+            segment.get(offset + HEADER_BYTES, payload);
+            if (segment.getInt(offset + CRC_OFFSET) != checksum(appendedAt, payload)) {
+                if (sink == null) {
+                    log.warn("Outbox record at position {} is torn or corrupt, truncating the log there", position);
+                }
+                break;
+            }
+
+            long next = position + HEADER_BYTES + length;
+            if (sink != null) {
+                sink.add(new OutboxEntry(next, appendedAt, new String(payload, StandardCharsets.UTF_8)));
+            }
+            position = next;
+            visited++;
+        }
+        return new long[]{position, visited};
+    }
+
+    private MappedByteBuffer segment(long base, boolean create) {
+        MappedByteBuffer existing = segments.get(base);
+        if (existing != null) {
+            return existing;
+        }
+        Path path = segmentPath(base);
+        if (!create && !Files.exists(path)) {
+            return null;
+        }
+        return segments.computeIfAbsent(base, b -> {
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to map outbox segment " + path, e);
+            }
+        });
+    }
+
+    private void deleteSegmentsBelow(long base) {
+        for (Long candidate : listSegmentBases()) {
+            if (candidate >= base) {
+                break;
+            }
+            segments.remove(candidate);
+            try {
+                Files.deleteIfExists(segmentPath(candidate));
+            } catch (IOException e) {
+                log.warn("Failed to delete drained outbox segment {}", candidate, e);
+            }
+        }
+    }
+
+    private List<Long> listSegmentBases() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list outbox segments", e);
+        }
+    }
+
+    private static int checksum(long appendedAt, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, appendedAt));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private long segmentBase(long position) {
+        return position - (position % segmentBytes);
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        synchronized (writeLock) {
+            closed = true;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+        checkpointChannel.close();
+    }
+
+    @Value
+    public static class OutboxEntry {
+        long nextPosition;
+        long appendedAt;
+        String payload;
+    }
+}
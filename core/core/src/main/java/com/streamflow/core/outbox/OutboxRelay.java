@@ -0,0 +1,145 @@
+package com.streamflow.core.outbox;
+
+import com.streamflow.core.config.NotificationProperties;
+import com.streamflow.core.outbox.OutboxLog.OutboxEntry;
+import com.streamflow.core.service.MetricsService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the {@link OutboxLog} to Kafka in batches.
+ *
+ * A batch is only checkpointed once every send in it is acknowledged, so delivery is
+ * at-least-once: a partially failed batch is re-sent as a whole on the next attempt.
+ * Failures back off exponentially up to {@code relayMaxBackoffMs}. The relay runs on its own
+ * thread so a Kafka outage never holds up the shared {@code @Scheduled} pool.
+ *
+ * It also has its own producer with a short {@code max.block.ms}, and a batch stops at its first
+ * failed send or once {@code relaySendTimeoutMs} has passed, so an unreachable broker costs one
+ * short attempt per backoff instead of a full metadata wait for every record.
+ */
+@Component
+@ConditionalOnProperty(prefix = "notification.outbox", name = "enabled", havingValue = "true")
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxLog outboxLog;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final NotificationProperties properties;
+    private final MetricsService metricsService;
+
+    private final ScheduledExecutorService relayExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "outbox-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private long backoffMs;
+    private long nextAttemptAt;
+
+    public OutboxRelay(OutboxLog outboxLog,
+                       ProducerFactory<String, String> producerFactory,
+                       NotificationProperties properties,
+                       MetricsService metricsService) {
+        this.outboxLog = outboxLog;
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory,
+                Map.of(ProducerConfig.MAX_BLOCK_MS_CONFIG, properties.getOutbox().getRelayMaxBlockMs()));
+        this.properties = properties;
+        this.metricsService = metricsService;
+
+        long interval = properties.getOutbox().getRelayIntervalMs();
+        relayExecutor.scheduleWithFixedDelay(this::drainSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // A scheduled task that throws is never run again
+    private void drainSafely() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.error("Outbox relay failed", e);
+        }
+    }
+
+    void drain() {
+        if (System.currentTimeMillis() >= nextAttemptAt) {
+            int batchSize = properties.getOutbox().getRelayBatchSize();
+            // Keep going while batches come back full so a backlog drains without waiting a tick each time
+            int relayed;
+            do {
+                relayed = relayBatch(batchSize);
+            } while (relayed == batchSize);
+        }
+        reportMetrics();
+    }
+
+    private int relayBatch(int batchSize) {
+        List<OutboxEntry> batch = outboxLog.readBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        String topic = properties.getKafka().getMainTopic();
+        long deadline = System.currentTimeMillis() + properties.getOutbox().getRelaySendTimeoutMs();
+        try {
+            CompletableFuture<?>[] sends = new CompletableFuture<?>[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                CompletableFuture<SendResult<String, String>> send = kafkaTemplate.send(topic, batch.get(i).getPayload());
+                if (send.isCompletedExceptionally()) {
+                    send.get(); // rethrows the cause; the rest of the batch would fail the same way
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    throw new TimeoutException("Batch send deadline passed after " + (i + 1) + " records");
+                }
+                sends[i] = send;
+            }
+            CompletableFuture.allOf(sends)
+                    .get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (Exception e) {
+            backoffMs = Math.min(Math.max(backoffMs * 2, properties.getOutbox().getRelayIntervalMs()),
+                    properties.getOutbox().getRelayMaxBackoffMs());
+            nextAttemptAt = System.currentTimeMillis() + backoffMs;
+            metricsService.incrementOutboxRelayFailures();
+            log.warn("Outbox relay of {} records failed, retrying in {} ms: {}", batch.size(), backoffMs, e.getMessage());
+            return 0;
+        }
+
+        outboxLog.commit(batch.get(batch.size() - 1).getNextPosition(), batch.size());
+        metricsService.incrementNotificationsSent(batch.size());
+        backoffMs = 0;
+        return batch.size();
+    }
+
+    private void reportMetrics() {
+        metricsService.recordOutboxDepth(outboxLog.getPendingRecords());
+        long oldest = outboxLog.getOldestPendingAppendedAt();
+        metricsService.recordOutboxRelayLag(oldest == 0 ? 0 : System.currentTimeMillis() - oldest);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        relayExecutor.shutdown();
+        if (!relayExecutor.awaitTermination(properties.getOutbox().getRelaySendTimeoutMs(), TimeUnit.MILLISECONDS)) {
+            relayExecutor.shutdownNow();
+        }
+        kafkaTemplate.destroy();
+    }
+}
@@ -0,0 +1,16 @@
+package com.streamflow.core.repository;
+
+import com.streamflow.core.model.DlqRecord;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DlqRecordRepository extends MongoRepository<DlqRecord, String> {
+
+    // Browse the DLQ by failure class
+    Page<DlqRecord> findByExceptionClassAndStatusOrderByFailedAtDesc(String exceptionClass, String status, Pageable pageable);
+
+    Page<DlqRecord> findByStatusOrderByFailedAtDesc(String status, Pageable pageable);
+}
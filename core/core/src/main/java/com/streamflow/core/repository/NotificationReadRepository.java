@@ -0,0 +1,68 @@
+package com.streamflow.core.repository;
+
+import com.streamflow.core.config.MongoConfig;
+import com.streamflow.core.model.NotificationLog;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read side of the logs collection, served through the secondary-preferred template.
+ *
+ * Results may lag the primary by up to the configured max staleness. Every query is scoped to the
+ * caller's tenant and takes an optional userId: when present it is the leading field of the
+ * (userId, timestamp) shard key, so the query is routed to the owning shard and served by that index
+ * instead of scattered to all shards.
+ */
+@Repository
+public class NotificationReadRepository {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "timestamp");
+
+    private final MongoTemplate readMongoTemplate;
+
+    public NotificationReadRepository(@Qualifier(MongoConfig.READ_TEMPLATE) MongoTemplate readMongoTemplate) {
+        this.readMongoTemplate = readMongoTemplate;
+    }
+
+    public Page<NotificationLog> findHistory(String tenant, String userId, Pageable pageable) {
+        Query query = forUser(tenant, userId).with(NEWEST_FIRST);
+        Query countQuery = Query.of(query);
+        List<NotificationLog> content = readMongoTemplate.find(query.with(pageable), NotificationLog.class);
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> readMongoTemplate.count(countQuery, NotificationLog.class));
+    }
+
+    public List<NotificationLog> findByUser(String tenant, String userId) {
+        return readMongoTemplate.find(forUser(tenant, userId).with(NEWEST_FIRST), NotificationLog.class);
+    }
+
+    public List<NotificationLog> findByType(String tenant, String type, String userId) {
+        Query query = forUser(tenant, userId).addCriteria(Criteria.where("type").is(type));
+        return readMongoTemplate.find(query.with(NEWEST_FIRST), NotificationLog.class);
+    }
+
+    public List<NotificationLog> findByChannel(String tenant, String channel, String userId) {
+        Query query = forUser(tenant, userId).addCriteria(Criteria.where("channel").is(channel));
+        return readMongoTemplate.find(query.with(NEWEST_FIRST), NotificationLog.class);
+    }
+
+    public List<NotificationLog> findByTimeRange(String tenant, LocalDateTime start, LocalDateTime end, String userId) {
+        Query query = forUser(tenant, userId).addCriteria(Criteria.where("timestamp").gt(start).lt(end));
+        return readMongoTemplate.find(query.with(NEWEST_FIRST), NotificationLog.class);
+    }
+
+    private static Query forUser(String tenant, String userId) {
+        Query query = Query.query(Criteria.where("tenant").is(tenant));
+        return userId != null ? query.addCriteria(Criteria.where("userId").is(userId)) : query;
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends MongoRepository<NotificationLog, String> {
@@ -38,4 +39,14 @@ public interface NotificationRepository extends MongoRepository<NotificationLog,
     
     // Count by type (useful for metrics)
     long countByType(String type);
+
+    // Tenant-scoped counts for /stats
+    long countByTenant(String tenant);
+
+    long countByTenantAndType(String tenant, String type);
+
+    // Tenant-scoped lookup by id; with the userId it includes the shard key, so it is routed to one shard
+    Optional<NotificationLog> findByIdAndTenant(String id, String tenant);
+
+    Optional<NotificationLog> findByIdAndTenantAndUserId(String id, String tenant, String userId);
 }
@@ -0,0 +1,149 @@
+package com.streamflow.core.scheduler;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel in the style of Kafka's purgatory timer.
+ *
+ * Level 0 has {@code wheelSize} buckets of {@code tickMs}; each overflow level's tick is the full
+ * span of the level below, so a few levels cover hours with O(1) inserts. Only non-empty buckets
+ * are tracked in a priority queue ordered by expiry, so advancing the clock costs nothing for
+ * empty ticks. When a higher-level bucket expires its items are re-inserted and cascade down to
+ * finer levels until they expire.
+ *
+ * Not thread-safe: owned by a single thread.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final PriorityQueue<Bucket<T>> bucketQueue = new PriorityQueue<>(Comparator.comparingLong(bucket -> bucket.expiration));
+    private final Level<T> root;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs < 1 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMs must be positive and wheelSize at least 2");
+        }
+        this.root = new Level<>(tickMs, wheelSize, startMs, bucketQueue);
+    }
+
+    /**
+     * @return false if the item is already due; it is not added and the caller should fire it now
+     */
+    public boolean add(T item, long expirationMs) {
+        if (root.add(new Entry<>(item, expirationMs))) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Moves the clock to {@code nowMs} and passes every item due by then to {@code onExpired},
+     * in expiry order at tick granularity.
+     */
+    public void advance(long nowMs, Consumer<T> onExpired) {
+        Bucket<T> bucket;
+        while ((bucket = bucketQueue.peek()) != null && bucket.expiration <= nowMs) {
+            bucketQueue.poll();
+            root.advanceClock(bucket.expiration);
+            for (Entry<T> entry : bucket.flush()) {
+                if (!root.add(entry)) {
+                    size--;
+                    onExpired.accept(entry.item);
+                }
+            }
+        }
+        root.advanceClock(nowMs);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long expirationMs;
+
+        Entry(T item, long expirationMs) {
+            this.item = item;
+            this.expirationMs = expirationMs;
+        }
+    }
+
+    private static final class Bucket<T> {
+        private final List<Entry<T>> entries = new ArrayList<>();
+        private long expiration = -1;
+
+        // True when the bucket is (re)armed for a new expiry and must be queued
+        boolean setExpiration(long expiration) {
+            if (this.expiration == expiration) {
+                return false;
+            }
+            this.expiration = expiration;
+            return true;
+        }
+
+        List<Entry<T>> flush() {
+            List<Entry<T>> flushed = new ArrayList<>(entries);
+            entries.clear();
+            expiration = -1;
+            return flushed;
+        }
+    }
+
+    private static final class Level<T> {
+        private final long tickMs;
+        private final int wheelSize;
+        private final long interval;
+        private final Bucket<T>[] buckets;
+        private final PriorityQueue<Bucket<T>> bucketQueue;
+        private long currentTime;
+        private Level<T> overflow;
+
+        @SuppressWarnings("unchecked")
+        Level(long tickMs, int wheelSize, long startMs, PriorityQueue<Bucket<T>> bucketQueue) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.interval = tickMs * wheelSize;
+            this.bucketQueue = bucketQueue;
+            this.currentTime = startMs - (startMs % tickMs);
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket<>();
+            }
+        }
+
+        boolean add(Entry<T> entry) {
+            long expiration = entry.expirationMs;
+            if (expiration < currentTime + tickMs) {
+                return false;
+            }
+            if (expiration < currentTime + interval) {
+                long virtualId = expiration / tickMs;
+                Bucket<T> bucket = buckets[(int) (virtualId % wheelSize)];
+                bucket.entries.add(entry);
+                if (bucket.setExpiration(virtualId * tickMs)) {
+                    bucketQueue.add(bucket);
+                }
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new Level<>(interval, wheelSize, currentTime, bucketQueue);
+            }
+            return overflow.add(entry);
+        }
+
+        void advanceClock(long timeMs) {
+            if (timeMs >= currentTime + tickMs) {
+                currentTime = timeMs - (timeMs % tickMs);
+                if (overflow != null) {
+                    overflow.advanceClock(currentTime);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.streamflow.core.scheduler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.streamflow.core.config.NotificationProperties;
+import com.streamflow.core.dto.NotificationRequest;
+import com.streamflow.core.model.ScheduledNotification;
+import com.streamflow.core.security.TokenBucket;
+import com.streamflow.core.service.MetricsService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delayed delivery for requests with a {@code sendAt}.
+ *
+ * Scheduled requests are stored in Mongo. Every {@code loadIntervalMs} this node claims, under a
+ * lease, the items due within the next {@code loadAheadMs} (one indexed range query per slice, in
+ * batches) and puts them on a {@link HierarchicalTimingWheel} driven by a single thread. Due items
+ * are published to the main topic through a token bucket, with up to {@code jitterMs} of random
+ * delay so a top-of-the-hour spike is spread out, and deleted once Kafka acknowledges them.
+ *
+ * Leases are renewed while this node is alive; items held by a node that died are reclaimed by
+ * another node once the lease runs out. Release is at-least-once. Claims, renewals and acks run on
+ * the scheduler's own threads rather than the shared {@code @Scheduled} pool, so a slow job elsewhere
+ * can't hold back a renewal until the lease lapses and another node sends the items again. Off by
+ * default ({@code notification.scheduler.enabled}).
+ */
+@Service
+public class NotificationScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationScheduler.class);
+    private static final long RETRY_DELAY_MS = 1000;
+    private static final int ACK_BATCH_SIZE = 1000;
+
+    private final NotificationProperties properties;
+    private final NotificationProperties.Scheduler config;
+    private final MongoTemplate mongoTemplate;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final MetricsService metricsService;
+    private final ObjectMapper objectMapper;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final TokenBucket releaseLimiter;
+
+    // Handoff into the wheel thread, and back out for acknowledgement
+    private final Queue<Pending> inbox = new ConcurrentLinkedQueue<>();
+    private final Queue<String> released = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger loaded = new AtomicInteger();
+
+    // Owned by the wheel thread
+    private final HierarchicalTimingWheel<Pending> wheel;
+    private final ArrayDeque<Pending> ready = new ArrayDeque<>();
+    private final Thread wheelThread;
+    // Claims on one thread; lease renewals and acks on the other, so a long claim loop doesn't delay them
+    private final ScheduledExecutorService jobs;
+    private volatile boolean running = true;
+
+    public NotificationScheduler(NotificationProperties properties,
+                                 MongoTemplate mongoTemplate,
+                                 KafkaTemplate<String, String> kafkaTemplate,
+                                 MetricsService metricsService,
+                                 ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.config = properties.getScheduler();
+        this.mongoTemplate = mongoTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.metricsService = metricsService;
+        this.objectMapper = objectMapper;
+        this.releaseLimiter = new TokenBucket(config.getReleaseRatePerSecond(), config.getReleaseBurst(), 1);
+        this.wheel = new HierarchicalTimingWheel<>(config.getTickMs(), config.getWheelSize(), System.currentTimeMillis());
+
+        if (config.isEnabled()) {
+            metricsService.registerSchedulerLoaded(loaded::get);
+            wheelThread = new Thread(this::runWheel, "scheduler-wheel");
+            wheelThread.setDaemon(true);
+            wheelThread.start();
+            jobs = Executors.newScheduledThreadPool(2, r -> {
+                Thread thread = new Thread(r, "scheduler-jobs");
+                thread.setDaemon(true);
+                return thread;
+            });
+            jobs.scheduleWithFixedDelay(this::load, 0, config.getLoadIntervalMs(), TimeUnit.MILLISECONDS);
+            jobs.scheduleWithFixedDelay(this::renewLeases, config.getLoadIntervalMs(), config.getLoadIntervalMs(), TimeUnit.MILLISECONDS);
+            jobs.scheduleWithFixedDelay(this::acknowledgeReleased, config.getAckIntervalMs(), config.getAckIntervalMs(), TimeUnit.MILLISECONDS);
+        } else {
+            wheelThread = null;
+            jobs = null;
+        }
+    }
+
+    /**
+     * @return true if {@code sendAt} is far enough ahead to be scheduled rather than sent now
+     */
+    public boolean shouldSchedule(LocalDateTime sendAt) {
+        return sendAt != null
+                && toEpochMillis(sendAt) > System.currentTimeMillis() + config.getMinDelayMs();
+    }
+
+    public ScheduledNotification schedule(NotificationRequest request) {
+        if (!config.isEnabled()) {
+            throw new IllegalArgumentException("Scheduled delivery is disabled");
+        }
+        LocalDateTime sendAt = request.getSendAt();
+        if (sendAt.isAfter(LocalDateTime.now(ZoneOffset.UTC).plus(config.getMaxHorizon()))) {
+            throw new IllegalArgumentException("sendAt must be within " + config.getMaxHorizon().toDays() + " days");
+        }
+
+        // Published as a plain request once due
+        ObjectNode payload = objectMapper.valueToTree(request);
+        payload.remove("sendAt");
+
+        long now = System.currentTimeMillis();
+        long dueAt = toEpochMillis(sendAt);
+        // Due before the next load: claim it for this node straight away
+        boolean loadNow = dueAt < now + config.getLoadAheadMs() && loaded.get() < config.getMaxLoaded();
+
+        ScheduledNotification scheduled = ScheduledNotification.builder()
+                .payload(payload.toString())
+                .userId(request.getUserId())
+                .tenant(request.getTenant())
+                .sendAt(sendAt)
+                .dueAt(dueAt)
+                .status(loadNow ? ScheduledNotification.STATUS_LOADED : ScheduledNotification.STATUS_PENDING)
+                .owner(loadNow ? nodeId : null)
+                .leaseUntil(loadNow ? now + config.getLeaseMs() : 0)
+                .createdAt(LocalDateTime.now())
+                .build();
+        ScheduledNotification saved = mongoTemplate.insert(scheduled);
+        if (loadNow) {
+            enqueue(saved);
+        }
+        metricsService.incrementScheduled();
+        log.info("Scheduled notification {} for {}", saved.getId(), sendAt);
+        return saved;
+    }
+
+    // ========== LOADER ==========
+
+    void load() {
+        if (!running) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            long horizon = now + config.getLoadAheadMs();
+            while (true) {
+                int room = config.getMaxLoaded() - loaded.get();
+                if (room <= 0) {
+                    log.warn("Scheduler holds {} items, deferring further loads", loaded.get());
+                    return;
+                }
+                int limit = Math.min(room, config.getLoadBatchSize());
+                if (claimBatch(now, horizon, limit) < limit) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to load scheduled notifications", e);
+        }
+    }
+
+    String getNodeId() {
+        return nodeId;
+    }
+
+    int getLoaded() {
+        return loaded.get();
+    }
+
+    void renewLeases() {
+        if (!running) {
+            return;
+        }
+        try {
+            mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("owner").is(nodeId).and("status").is(ScheduledNotification.STATUS_LOADED)),
+                    Update.update("leaseUntil", System.currentTimeMillis() + config.getLeaseMs()),
+                    ScheduledNotification.class);
+        } catch (RuntimeException e) {
+            // A scheduled task that throws is never run again
+            log.error("Failed to renew scheduler leases", e);
+        }
+    }
+
+    /**
+     * @return number of candidates found; fewer than {@code limit} means the slice is exhausted
+     */
+    private int claimBatch(long now, long horizon, int limit) {
+        Criteria claimable = new Criteria().andOperator(
+                Criteria.where("dueAt").lt(horizon),
+                new Criteria().orOperator(
+                        Criteria.where("status").is(ScheduledNotification.STATUS_PENDING),
+                        Criteria.where("status").is(ScheduledNotification.STATUS_LOADED).and("leaseUntil").lt(now)));
+
+        Query candidatesQuery = Query.query(claimable).with(Sort.by("dueAt")).limit(limit);
+        candidatesQuery.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidatesQuery, ScheduledNotification.class).stream()
+                .map(ScheduledNotification::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // Conditional update, so concurrent loaders on other nodes each win a disjoint subset
+        String token = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                Query.query(new Criteria().andOperator(Criteria.where("_id").in(ids), claimable)),
+                new Update()
+                        .set("status", ScheduledNotification.STATUS_LOADED)
+                        .set("owner", nodeId)
+                        .set("claimToken", token)
+                        .set("leaseUntil", now + config.getLeaseMs()),
+                ScheduledNotification.class);
+
+        List<ScheduledNotification> claimed = mongoTemplate.find(
+                Query.query(Criteria.where("_id").in(ids).and("claimToken").is(token)),
+                ScheduledNotification.class);
+        claimed.forEach(this::enqueue);
+        log.debug("Claimed {} of {} scheduled notifications due before {}", claimed.size(), ids.size(), horizon);
+        return ids.size();
+    }
+
+    private void enqueue(ScheduledNotification scheduled) {
+        long jitter = config.getJitterMs() > 0 ? ThreadLocalRandom.current().nextLong(config.getJitterMs()) : 0;
+        inbox.add(new Pending(scheduled.getId(), scheduled.getPayload(), scheduled.getDueAt() + jitter));
+        loaded.incrementAndGet();
+    }
+
+    // ========== WHEEL & RELEASE ==========
+
+    private void runWheel() {
+        while (running) {
+            try {
+                Pending pending;
+                while ((pending = inbox.poll()) != null) {
+                    if (!wheel.add(pending, pending.fireAt)) {
+                        ready.add(pending);
+                    }
+                }
+                wheel.advance(System.currentTimeMillis(), ready::add);
+                releaseReady();
+                Thread.sleep(config.getTickMs());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Scheduler wheel failed", e);
+            }
+        }
+    }
+
+    // Due items beyond the release rate wait here, so bursts leave at a steady pace
+    private void releaseReady() {
+        String topic = properties.getKafka().getMainTopic();
+        while (!ready.isEmpty() && releaseLimiter.tryAcquire()) {
+            Pending pending = ready.poll();
+            kafkaTemplate.send(topic, pending.payload).whenComplete((result, ex) -> {
+                if (ex == null) {
+                    released.add(pending.id);
+                    loaded.decrementAndGet();
+                } else {
+                    log.warn("Failed to release scheduled notification {}, retrying: {}", pending.id, ex.getMessage());
+                    inbox.add(new Pending(pending.id, pending.payload, System.currentTimeMillis() + RETRY_DELAY_MS));
+                }
+            });
+        }
+    }
+
+    void acknowledgeReleased() {
+        List<String> ids = new ArrayList<>(ACK_BATCH_SIZE);
+        String id;
+        while ((id = released.poll()) != null) {
+            ids.add(id);
+            if (ids.size() == ACK_BATCH_SIZE) {
+                deleteReleased(ids);
+                ids = new ArrayList<>(ACK_BATCH_SIZE);
+            }
+        }
+        if (!ids.isEmpty()) {
+            deleteReleased(ids);
+        }
+    }
+
+    private void deleteReleased(List<String> ids) {
+        try {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), ScheduledNotification.class);
+            metricsService.incrementScheduledReleased(ids.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to acknowledge {} released notifications, will retry", ids.size(), e);
+            released.addAll(ids);
+        }
+    }
+
+    /**
+     * Hands items still in memory back to the pool so other nodes pick them up without waiting
+     * for the lease to expire.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (wheelThread == null) {
+            return;
+        }
+        running = false;
+        jobs.shutdown();
+        jobs.awaitTermination(5, TimeUnit.SECONDS);
+        wheelThread.join(TimeUnit.SECONDS.toMillis(5));
+        acknowledgeReleased();
+        try {
+            mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("owner").is(nodeId).and("status").is(ScheduledNotification.STATUS_LOADED)),
+                    new Update().set("status", ScheduledNotification.STATUS_PENDING).unset("owner").unset("claimToken"),
+                    ScheduledNotification.class);
+        } catch (RuntimeException e) {
+            log.warn("Failed to return scheduled notifications, they will be reclaimed after the lease", e);
+        }
+    }
+
+    // sendAt is UTC, so dueAt means the same instant on every node whatever its time zone
+    private static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static final class Pending {
+        private final String id;
+        private final String payload;
+        private final long fireAt;
+
+        Pending(String id, String payload, long fireAt) {
+            this.id = id;
+            this.payload = payload;
+            this.fireAt = fireAt;
+        }
+    }
+}
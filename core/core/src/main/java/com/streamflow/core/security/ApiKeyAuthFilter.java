@@ -1,25 +1,44 @@
 package com.streamflow.core.security;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamflow.core.exception.ErrorResponse;
+import com.streamflow.core.service.MetricsService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class ApiKeyAuthFilter extends OncePerRequestFilter {
 
-    @Value("${notification.security.api-key}")
-    private String validApiKey;
-
     private static final String API_KEY_HEADER = "X-API-Key";
+    public static final String ADMIN_ROLE = "ADMIN";
+
+    private static final List<GrantedAuthority> ADMIN_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_" + ADMIN_ROLE));
+
+    private final TenantRegistry tenantRegistry;
+    private final MetricsService metricsService;
+    private final ObjectMapper objectMapper;
+
+    public ApiKeyAuthFilter(TenantRegistry tenantRegistry, MetricsService metricsService, ObjectMapper objectMapper) {
+        this.tenantRegistry = tenantRegistry;
+        this.metricsService = metricsService;
+        this.objectMapper = objectMapper;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -27,14 +46,40 @@ public class ApiKeyAuthFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
 
         String apiKey = request.getHeader(API_KEY_HEADER);
+        Optional<Tenant> tenant = (apiKey != null) ? tenantRegistry.findByApiKey(apiKey) : Optional.empty();
 
-        if (apiKey != null && apiKey.equals(validApiKey)) {
-            // Valid API key - authenticate
-            UsernamePasswordAuthenticationToken auth = 
-                new UsernamePasswordAuthenticationToken("api-user", null, Collections.emptyList());
+        if (tenant.isPresent()) {
+            // Valid API key - enforce the tenant's quota before doing any work
+            if (!tenant.get().getRateLimiter().tryAcquire()) {
+                metricsService.incrementTenantRequests(tenant.get().getId(), "throttled");
+                rejectThrottled(response, tenant.get());
+                return;
+            }
+            metricsService.incrementTenantRequests(tenant.get().getId(), "accepted");
+
+            // Authenticate with the tenant id as principal; only admin keys get the admin role
+            List<GrantedAuthority> authorities = tenantRegistry.isAdminKey(apiKey) ? ADMIN_AUTHORITIES : List.of();
+            UsernamePasswordAuthenticationToken auth =
+                new UsernamePasswordAuthenticationToken(tenant.get().getId(), null, authorities);
             SecurityContextHolder.getContext().setAuthentication(auth);
         }
 
         filterChain.doFilter(request, response);
     }
+
+    private void rejectThrottled(HttpServletResponse response, Tenant tenant) throws IOException {
+        long waitNanos = tenant.getRateLimiter().nanosUntilNextPermit();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+
+        ErrorResponse body = ErrorResponse.builder()
+                .errorCode("RATE_LIMITED")
+                .message("Rate limit exceeded for tenant " + tenant.getId())
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
 }
@@ -0,0 +1,98 @@
+package com.streamflow.core.security;
+
+import com.streamflow.core.config.NotificationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximates cluster-wide tenant limits without putting Redis on the request path.
+ *
+ * Every sync tick each node adds the permits it granted to a per-second counter in Redis
+ * (pipelined INCRBY + EXPIRE for all tenants). When a second closes, the node's share of that
+ * second's cluster total becomes its share of the tenant quota (rate and burst alike) for the
+ * next second, floored at {@code minShare} so an idle node can still admit new traffic.
+ */
+@Component
+@ConditionalOnProperty(prefix = "notification.security.distributed-rate-limit", name = "enabled", havingValue = "true")
+public class DistributedRateLimitSync {
+
+    private static final Logger log = LoggerFactory.getLogger(DistributedRateLimitSync.class);
+    private static final long KEY_TTL_SECONDS = 5;
+
+    private final TenantRegistry tenantRegistry;
+    private final StringRedisTemplate redisTemplate;
+    private final NotificationProperties.DistributedRateLimit config;
+
+    private final Map<String, long[]> windowCounts = new HashMap<>();   // tenant -> {local, clusterTotal}
+    private long currentWindow = -1;
+
+    public DistributedRateLimitSync(TenantRegistry tenantRegistry,
+                                    StringRedisTemplate redisTemplate,
+                                    NotificationProperties properties) {
+        this.tenantRegistry = tenantRegistry;
+        this.redisTemplate = redisTemplate;
+        this.config = properties.getSecurity().getDistributedRateLimit();
+    }
+
+    @Scheduled(fixedDelayString = "${notification.security.distributed-rate-limit.sync-interval-ms:200}")
+    public void sync() {
+        sync(System.currentTimeMillis());
+    }
+
+    void sync(long nowMillis) {
+        long window = nowMillis / 1000;
+        if (window != currentWindow) {
+            rebalance();
+            windowCounts.clear();
+            currentWindow = window;
+        }
+
+        List<Tenant> tenants = new ArrayList<>(tenantRegistry.getTenants());
+        long[] deltas = new long[tenants.size()];
+        for (int i = 0; i < tenants.size(); i++) {
+            deltas[i] = tenants.get(i).getRateLimiter().drainAccepted();
+        }
+
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (int i = 0; i < tenants.size(); i++) {
+                    String key = config.getKeyPrefix() + ":" + tenants.get(i).getId() + ":" + window;
+                    redis.incrBy(key, deltas[i]);
+                    redis.expire(key, KEY_TTL_SECONDS);
+                }
+                return null;
+            });
+
+            for (int i = 0; i < tenants.size(); i++) {
+                long[] counts = windowCounts.computeIfAbsent(tenants.get(i).getId(), id -> new long[2]);
+                counts[0] += deltas[i];
+                counts[1] = ((Number) results.get(i * 2)).longValue();
+            }
+        } catch (RuntimeException e) {
+            // Keep enforcing the last known local share; limits stay per-node until Redis is back
+            log.warn("Rate limit sync with Redis failed: {}", e.getMessage());
+        }
+    }
+
+    private void rebalance() {
+        for (Tenant tenant : tenantRegistry.getTenants()) {
+            long[] counts = windowCounts.get(tenant.getId());
+            double share = (counts == null || counts[1] == 0) ? 1.0 : (double) counts[0] / counts[1];
+            share = Math.max(config.getMinShare(), Math.min(1.0, share));
+            tenant.getRateLimiter().setLimits(tenant.getRequestsPerSecond() * share,
+                    (int) Math.round(tenant.getBurst() * share));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.streamflow.core.security;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class Tenant {
+    private final String id;
+    private final double requestsPerSecond;   // configured quota, cluster-wide when distributed limits are on
+    private final int burst;
+    private final TokenBucket rateLimiter;
+}
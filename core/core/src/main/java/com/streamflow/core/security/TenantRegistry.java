@@ -0,0 +1,88 @@
+package com.streamflow.core.security;
+
+import com.streamflow.core.config.NotificationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Resolves API keys to tenants. Built once at startup from {@code notification.security},
+ * so lookups on the request path are a read-only map access. Admin keys are tracked separately:
+ * only they (and the legacy operator key) may use the admin API.
+ */
+@Component
+public class TenantRegistry {
+
+    private final Map<String, Tenant> tenantsByApiKey = new HashMap<>();
+    private final Map<String, Tenant> tenantsById = new LinkedHashMap<>();
+    private final Set<String> adminApiKeys = new HashSet<>();
+
+    public TenantRegistry(NotificationProperties properties) {
+        NotificationProperties.Security security = properties.getSecurity();
+
+        for (NotificationProperties.Tenant config : security.getTenants()) {
+            if (config.getId() == null || (config.getApiKeys().isEmpty() && config.getAdminApiKeys().isEmpty())) {
+                throw new IllegalStateException("Every tenant needs an id and at least one API key");
+            }
+            Tenant tenant = newTenant(config.getId(),
+                    config.getRequestsPerSecond() != null ? config.getRequestsPerSecond() : security.getDefaultRequestsPerSecond(),
+                    config.getBurst() != null ? config.getBurst() : security.getDefaultBurst(),
+                    config.getStripes() != null ? config.getStripes() : security.getRateLimitStripes());
+            config.getApiKeys().forEach(apiKey -> register(apiKey, tenant));
+            config.getAdminApiKeys().forEach(apiKey -> {
+                register(apiKey, tenant);
+                adminApiKeys.add(apiKey);
+            });
+        }
+
+        // The legacy single key keeps working as the default tenant
+        if (security.getApiKey() != null && !security.getApiKey().isBlank()) {
+            Tenant tenant = tenantsById.containsKey(security.getDefaultTenant())
+                    ? tenantsById.get(security.getDefaultTenant())
+                    : newTenant(security.getDefaultTenant(), security.getDefaultRequestsPerSecond(),
+                            security.getDefaultBurst(), security.getRateLimitStripes());
+            register(security.getApiKey(), tenant);
+            adminApiKeys.add(security.getApiKey());
+        }
+    }
+
+    private Tenant newTenant(String id, double requestsPerSecond, int burst, int stripes) {
+        if (tenantsById.containsKey(id)) {
+            throw new IllegalStateException("Duplicate tenant id: " + id);
+        }
+        TokenBucket rateLimiter;
+        try {
+            rateLimiter = new TokenBucket(requestsPerSecond, burst, stripes);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid rate limit for tenant " + id + ": " + e.getMessage(), e);
+        }
+        Tenant tenant = new Tenant(id, requestsPerSecond, burst, rateLimiter);
+        tenantsById.put(id, tenant);
+        return tenant;
+    }
+
+    private void register(String apiKey, Tenant tenant) {
+        Tenant existing = tenantsByApiKey.putIfAbsent(apiKey, tenant);
+        if (existing != null && existing != tenant) {
+            throw new IllegalStateException("API key is assigned to more than one tenant");
+        }
+    }
+
+    public Optional<Tenant> findByApiKey(String apiKey) {
+        return Optional.ofNullable(tenantsByApiKey.get(apiKey));
+    }
+
+    public boolean isAdminKey(String apiKey) {
+        return adminApiKeys.contains(apiKey);
+    }
+
+    public Collection<Tenant> getTenants() {
+        return tenantsById.values();
+    }
+}
@@ -0,0 +1,115 @@
+package com.streamflow.core.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free token bucket implemented as GCRA (generic cell rate algorithm).
+ *
+ * Each cell keeps a single "theoretical arrival time" in an {@link AtomicLong}; acquiring a permit
+ * is one CAS that pushes it forward by the emission interval. A request is rejected when that
+ * would put the arrival time more than {@code burst} intervals ahead of now. With more than one
+ * stripe, rate and burst are split across cells and each thread starts at its own cell, so hot
+ * tenants don't serialize on one cache line. The burst remainder goes to the first cells, so the
+ * cells always add up to exactly the configured burst; a burst smaller than the stripe count is rejected.
+ */
+public class TokenBucket {
+
+    private final Cell[] cells;
+    private final LongAdder accepted = new LongAdder();
+    private volatile double ratePerSecond;
+    private volatile int burst;
+
+    public TokenBucket(double ratePerSecond, int burst, int stripes) {
+        if (ratePerSecond <= 0 || burst < 1 || stripes < 1) {
+            throw new IllegalArgumentException("Rate, burst and stripes must be positive");
+        }
+        if (burst < stripes) {
+            throw new IllegalArgumentException("Burst " + burst + " is smaller than the " + stripes + " stripes it is split across");
+        }
+        this.cells = new Cell[stripes];
+        for (int i = 0; i < stripes; i++) {
+            cells[i] = new Cell();
+        }
+        setLimits(ratePerSecond, burst);
+    }
+
+    public boolean tryAcquire() {
+        int home = (int) (Thread.currentThread().getId() % cells.length);
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[(home + i) % cells.length].tryAcquire()) {
+                accepted.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return nanoseconds until the home cell of the calling thread can grant a permit again
+     */
+    public long nanosUntilNextPermit() {
+        int home = (int) (Thread.currentThread().getId() % cells.length);
+        return cells[home].nanosUntilNextPermit();
+    }
+
+    /**
+     * Resizes the bucket without resetting its state, e.g. when the cluster-wide share changes.
+     * A burst below the stripe count is raised to it, since every cell must hold at least one permit.
+     */
+    public void setLimits(double ratePerSecond, int burst) {
+        int effectiveBurst = Math.max(burst, cells.length);
+        this.ratePerSecond = ratePerSecond;
+        this.burst = effectiveBurst;
+        long interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) * cells.length / ratePerSecond));
+        int cellBurst = effectiveBurst / cells.length;
+        int remainder = effectiveBurst % cells.length;
+        for (int i = 0; i < cells.length; i++) {
+            cells[i].params = new long[]{interval, interval * (cellBurst + (i < remainder ? 1 : 0))};
+        }
+    }
+
+    public double getRate() {
+        return ratePerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * @return permits granted since the previous call
+     */
+    public long drainAccepted() {
+        return accepted.sumThenReset();
+    }
+
+    private static final class Cell {
+        private final AtomicLong arrivalTime = new AtomicLong(System.nanoTime());
+        // {emissionIntervalNanos, toleranceNanos}, swapped atomically on resize
+        private volatile long[] params;
+
+        boolean tryAcquire() {
+            long[] current = params;
+            while (true) {
+                long now = System.nanoTime();
+                long tat = arrivalTime.get();
+                long next = (tat - now > 0 ? tat : now) + current[0];
+                if (next - now > current[1]) {
+                    return false;
+                }
+                if (arrivalTime.compareAndSet(tat, next)) {
+                    return true;
+                }
+            }
+        }
+
+        long nanosUntilNextPermit() {
+            long[] current = params;
+            long now = System.nanoTime();
+            long tat = arrivalTime.get();
+            return Math.max(0, (tat - now) + current[0] - current[1]);
+        }
+    }
+}
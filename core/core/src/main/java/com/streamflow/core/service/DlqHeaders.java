@@ -0,0 +1,55 @@
+package com.streamflow.core.service;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Header names carried by every DLQ record. Values are UTF-8 strings so the DLQ can be read
+ * by any client without knowing Kafka's binary header encodings.
+ */
+public final class DlqHeaders {
+
+    public static final String ORIGINAL_TOPIC = "dlq-original-topic";
+    public static final String ORIGINAL_PARTITION = "dlq-original-partition";
+    public static final String ORIGINAL_OFFSET = "dlq-original-offset";
+    public static final String EXCEPTION_CLASS = "dlq-exception-class";
+    public static final String EXCEPTION_MESSAGE = "dlq-exception-message";
+    public static final String ATTEMPTS = "dlq-attempts";
+    public static final String FAILED_AT = "dlq-failed-at";
+    public static final String REDRIVE_COUNT = "dlq-redrive-count";
+
+    private DlqHeaders() {
+    }
+
+    public static void put(Headers headers, String name, Object value) {
+        headers.remove(name);
+        if (value != null) {
+            headers.add(name, value.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public static String get(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        return (header == null || header.value() == null) ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    public static int getInt(Headers headers, String name, int defaultValue) {
+        String value = get(headers, name);
+        try {
+            return (value == null) ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(Headers headers, String name, long defaultValue) {
+        String value = get(headers, name);
+        try {
+            return (value == null) ? defaultValue : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
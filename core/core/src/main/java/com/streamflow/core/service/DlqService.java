@@ -0,0 +1,368 @@
+package com.streamflow.core.service;
+
+import com.streamflow.core.config.NotificationProperties;
+import com.streamflow.core.dto.DlqRedriveRequest;
+import com.streamflow.core.dto.DlqRedriveStatusResponse;
+import com.streamflow.core.dto.DlqSummaryResponse;
+import com.streamflow.core.exception.ResourceNotFoundException;
+import com.streamflow.core.model.DlqRecord;
+import com.streamflow.core.repository.DlqRecordRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Indexes DLQ messages in Mongo for failure classification and replays selected ones
+ * back to the main topic at a bounded rate.
+ *
+ * Redrive jobs run one at a time on a dedicated thread, so concurrent jobs queue up
+ * instead of multiplying the rate seen by the downstream.
+ */
+@Service
+public class DlqService {
+
+    private static final Logger log = LoggerFactory.getLogger(DlqService.class);
+
+    // Legacy DLQ messages were published as a prefixed string before headers were added
+    private static final String LEGACY_PREFIX = "FAILED_PAYLOAD: ";
+
+    private final DlqRecordRepository repository;
+    private final MongoTemplate mongoTemplate;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final NotificationProperties properties;
+    private final MetricsService metricsService;
+
+    private final ExecutorService redriveExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "dlq-redrive");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, RedriveJob> jobs = new ConcurrentHashMap<>();
+
+    public DlqService(DlqRecordRepository repository,
+                      MongoTemplate mongoTemplate,
+                      KafkaTemplate<String, String> kafkaTemplate,
+                      NotificationProperties properties,
+                      MetricsService metricsService) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.kafkaTemplate = kafkaTemplate;
+        this.properties = properties;
+        this.metricsService = metricsService;
+    }
+
+    // ========== DLQ PUBLISH ==========
+
+    /**
+     * Builds the DLQ record for a message that exhausted its retries. The payload is forwarded
+     * unchanged and the failure context travels in {@link DlqHeaders}.
+     */
+    public ProducerRecord<String, String> toDlqRecord(ConsumerRecord<String, String> failed, Throwable cause, int attempts) {
+        ProducerRecord<String, String> record = toDlqRecord(failed.topic(), failed.key(), failed.value(),
+                cause.getClass().getName(), cause.getMessage(), attempts);
+        Headers headers = record.headers();
+        DlqHeaders.put(headers, DlqHeaders.ORIGINAL_PARTITION, failed.partition());
+        DlqHeaders.put(headers, DlqHeaders.ORIGINAL_OFFSET, failed.offset());
+        DlqHeaders.put(headers, DlqHeaders.REDRIVE_COUNT, DlqHeaders.getInt(failed.headers(), DlqHeaders.REDRIVE_COUNT, 0));
+        return record;
+    }
+
+    /**
+     * Builds a DLQ record for a notification that failed after it left Kafka (e.g. in delivery).
+     * {@code source} stands in for the original topic; a redrive still replays to the main topic.
+     */
+    public ProducerRecord<String, String> toDlqRecord(String source, String key, String payload,
+                                                      String exceptionClass, String exceptionMessage, int attempts) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(properties.getKafka().getDlqTopic(), key, payload);
+        Headers headers = record.headers();
+        DlqHeaders.put(headers, DlqHeaders.ORIGINAL_TOPIC, source);
+        DlqHeaders.put(headers, DlqHeaders.EXCEPTION_CLASS, exceptionClass);
+        DlqHeaders.put(headers, DlqHeaders.EXCEPTION_MESSAGE, exceptionMessage);
+        DlqHeaders.put(headers, DlqHeaders.ATTEMPTS, attempts);
+        DlqHeaders.put(headers, DlqHeaders.FAILED_AT, System.currentTimeMillis());
+        return record;
+    }
+
+    // ========== CLASSIFICATION INDEX ==========
+
+    public void index(ConsumerRecord<String, String> record) {
+        Headers headers = record.headers();
+        String payload = record.value();
+        String exceptionClass = DlqHeaders.get(headers, DlqHeaders.EXCEPTION_CLASS);
+        if (payload != null && payload.startsWith(LEGACY_PREFIX)) {
+            payload = payload.substring(LEGACY_PREFIX.length());
+        }
+
+        long failedAtMillis = DlqHeaders.getLong(headers, DlqHeaders.FAILED_AT, record.timestamp());
+        String id = record.partition() + "-" + record.offset();
+
+        // setOnInsert keeps the index idempotent if the DLQ group ever re-reads the topic
+        Update update = new Update()
+                .setOnInsert("dlqPartition", record.partition())
+                .setOnInsert("dlqOffset", record.offset())
+                .setOnInsert("originalTopic", DlqHeaders.get(headers, DlqHeaders.ORIGINAL_TOPIC))
+                .setOnInsert("originalPartition", DlqHeaders.getInt(headers, DlqHeaders.ORIGINAL_PARTITION, -1))
+                .setOnInsert("originalOffset", DlqHeaders.getLong(headers, DlqHeaders.ORIGINAL_OFFSET, -1))
+                .setOnInsert("exceptionClass", exceptionClass != null ? exceptionClass : "UNKNOWN")
+                .setOnInsert("exceptionMessage", DlqHeaders.get(headers, DlqHeaders.EXCEPTION_MESSAGE))
+                .setOnInsert("attempts", DlqHeaders.getInt(headers, DlqHeaders.ATTEMPTS, 0))
+                .setOnInsert("redriveCount", DlqHeaders.getInt(headers, DlqHeaders.REDRIVE_COUNT, 0))
+                .setOnInsert("failedAt", LocalDateTime.ofInstant(Instant.ofEpochMilli(failedAtMillis), ZoneId.systemDefault()))
+                .setOnInsert("payload", payload)
+                .setOnInsert("status", DlqRecord.STATUS_PENDING);
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(id)), update, DlqRecord.class);
+
+        log.warn("Indexed DLQ message {} [{}] from {}-{}@{}", id, exceptionClass,
+                DlqHeaders.get(headers, DlqHeaders.ORIGINAL_TOPIC),
+                DlqHeaders.get(headers, DlqHeaders.ORIGINAL_PARTITION),
+                DlqHeaders.get(headers, DlqHeaders.ORIGINAL_OFFSET));
+    }
+
+    public List<DlqSummaryResponse> getSummary() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("exceptionClass", "status")
+                        .count().as("count")
+                        .min("failedAt").as("oldestFailedAt")
+                        .max("failedAt").as("newestFailedAt"),
+                Aggregation.sort(Sort.Direction.DESC, "count"));
+
+        List<DlqSummaryResponse> summary = new ArrayList<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, DlqRecord.class, Document.class)) {
+            Document group = row.get("_id", Document.class);
+            summary.add(DlqSummaryResponse.builder()
+                    .exceptionClass(group.getString("exceptionClass"))
+                    .status(group.getString("status"))
+                    .count(((Number) row.get("count")).longValue())
+                    .oldestFailedAt(toLocalDateTime(row.getDate("oldestFailedAt")))
+                    .newestFailedAt(toLocalDateTime(row.getDate("newestFailedAt")))
+                    .build());
+        }
+        return summary;
+    }
+
+    public Page<DlqRecord> getRecords(String exceptionClass, String status, Pageable pageable) {
+        String effectiveStatus = (status != null) ? status : DlqRecord.STATUS_PENDING;
+        if (exceptionClass != null) {
+            return repository.findByExceptionClassAndStatusOrderByFailedAtDesc(exceptionClass, effectiveStatus, pageable);
+        }
+        return repository.findByStatusOrderByFailedAtDesc(effectiveStatus, pageable);
+    }
+
+    // ========== REDRIVE ==========
+
+    public DlqRedriveStatusResponse startRedrive(DlqRedriveRequest request) {
+        NotificationProperties.Dlq config = properties.getDlq();
+        int rate = (request.getRatePerSecond() != null) ? request.getRatePerSecond() : config.getRedriveRatePerSecond();
+        if (rate > config.getRedriveMaxRatePerSecond()) {
+            throw new IllegalArgumentException("ratePerSecond must not exceed " + config.getRedriveMaxRatePerSecond());
+        }
+
+        Criteria criteria = redriveCriteria(request);
+        long matched = mongoTemplate.count(Query.query(criteria), DlqRecord.class);
+        if (request.getMaxMessages() != null) {
+            matched = Math.min(matched, request.getMaxMessages());
+        }
+
+        evictFinishedJobs(LocalDateTime.now());
+        RedriveJob job = new RedriveJob(UUID.randomUUID().toString(), criteria, matched, rate);
+        jobs.put(job.id, job);
+        redriveExecutor.execute(() -> runRedrive(job));
+        log.info("Queued DLQ redrive {} for {} messages at {}/s", job.id, matched, rate);
+        return job.toResponse();
+    }
+
+    public DlqRedriveStatusResponse getRedrive(String jobId) {
+        return findJob(jobId).toResponse();
+    }
+
+    public DlqRedriveStatusResponse cancelRedrive(String jobId) {
+        RedriveJob job = findJob(jobId);
+        job.cancelled = true;
+        return job.toResponse();
+    }
+
+    // Only starting a job grows the map, so pruning here bounds it to the jobs of one retention period
+    void evictFinishedJobs(LocalDateTime now) {
+        LocalDateTime cutoff = now.minus(properties.getDlq().getRedriveJobRetention());
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private RedriveJob findJob(String jobId) {
+        RedriveJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Redrive job not found: " + jobId);
+        }
+        return job;
+    }
+
+    private Criteria redriveCriteria(DlqRedriveRequest request) {
+        Criteria criteria = Criteria.where("status").is(DlqRecord.STATUS_PENDING);
+        if (request.getExceptionClass() != null) {
+            criteria.and("exceptionClass").is(request.getExceptionClass());
+        }
+        if (request.getOriginalTopic() != null) {
+            criteria.and("originalTopic").is(request.getOriginalTopic());
+        }
+        if (request.getFailedAfter() != null || request.getFailedBefore() != null) {
+            Criteria failedAt = criteria.and("failedAt");
+            if (request.getFailedAfter() != null) {
+                failedAt.gte(request.getFailedAfter());
+            }
+            if (request.getFailedBefore() != null) {
+                failedAt.lt(request.getFailedBefore());
+            }
+        }
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            criteria.and("_id").in(request.getIds());
+        }
+        return criteria;
+    }
+
+    private void runRedrive(RedriveJob job) {
+        job.status = "RUNNING";
+        job.startedAt = LocalDateTime.now();
+        NotificationProperties.Dlq config = properties.getDlq();
+        String mainTopic = properties.getKafka().getMainTopic();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / job.ratePerSecond;
+        long nextSendAt = System.nanoTime();
+        String lastId = null;
+
+        try {
+            while (!job.cancelled && job.sent.get() < job.matched) {
+                // Keyset pagination on _id keeps each page an index range scan, even for millions of entries
+                Criteria pageCriteria = (lastId == null) ? job.criteria
+                        : new Criteria().andOperator(job.criteria, Criteria.where("_id").gt(lastId));
+                Query page = Query.query(pageCriteria)
+                        .with(Sort.by(Sort.Direction.ASC, "_id"))
+                        .limit((int) Math.min(config.getRedriveBatchSize(), job.matched - job.sent.get()));
+                List<DlqRecord> batch = mongoTemplate.find(page, DlqRecord.class);
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+                Queue<String> acknowledged = new ConcurrentLinkedQueue<>();
+                for (DlqRecord record : batch) {
+                    if (job.cancelled) {
+                        break;
+                    }
+                    // Pace sends evenly; never bank more than one second of credit after a stall
+                    long now = System.nanoTime();
+                    if (nextSendAt > now) {
+                        LockSupport.parkNanos(nextSendAt - now);
+                    } else if (now - nextSendAt > TimeUnit.SECONDS.toNanos(1)) {
+                        nextSendAt = now;
+                    }
+                    nextSendAt += intervalNanos;
+
+                    ProducerRecord<String, String> replay = new ProducerRecord<>(mainTopic, record.getPayload());
+                    DlqHeaders.put(replay.headers(), DlqHeaders.REDRIVE_COUNT, record.getRedriveCount() + 1);
+                    sends.add(kafkaTemplate.send(replay).thenRun(() -> acknowledged.add(record.getId())));
+                }
+
+                try {
+                    CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0]))
+                            .get(config.getRedriveSendTimeoutMs(), TimeUnit.MILLISECONDS);
+                } finally {
+                    // Even when part of the batch failed, what was acknowledged must not be replayed again
+                    markRedriven(job, List.copyOf(acknowledged));
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+            job.status = job.cancelled ? "CANCELLED" : "COMPLETED";
+        } catch (Exception e) {
+            log.error("DLQ redrive {} failed after {} messages", job.id, job.sent.get(), e);
+            job.status = "FAILED";
+            job.detail = e.getMessage();
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+        log.info("DLQ redrive {} {}: {}/{} messages replayed", job.id, job.status, job.sent.get(), job.matched);
+    }
+
+    private void markRedriven(RedriveJob job, List<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(ids)),
+                new Update().set("status", DlqRecord.STATUS_REDRIVEN).set("redrivenAt", LocalDateTime.now()),
+                DlqRecord.class);
+        job.sent.addAndGet(ids.size());
+        metricsService.incrementDlqRedriven(ids.size());
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return (date == null) ? null : LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(job -> job.cancelled = true);
+        redriveExecutor.shutdown();
+    }
+
+    private static class RedriveJob {
+        private final String id;
+        private final Criteria criteria;
+        private final long matched;
+        private final int ratePerSecond;
+        private final AtomicLong sent = new AtomicLong();
+        private volatile String status = "QUEUED";
+        private volatile String detail;
+        private volatile boolean cancelled;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+
+        RedriveJob(String id, Criteria criteria, long matched, int ratePerSecond) {
+            this.id = id;
+            this.criteria = criteria;
+            this.matched = matched;
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        DlqRedriveStatusResponse toResponse() {
+            return DlqRedriveStatusResponse.builder()
+                    .jobId(id)
+                    .status(status)
+                    .matched(matched)
+                    .sent(sent.get())
+                    .ratePerSecond(ratePerSecond)
+                    .detail(detail)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
@@ -1,22 +1,50 @@
 package com.streamflow.core.service;
 
+import com.streamflow.core.config.NotificationProperties;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 @Service
 public class MetricsService {
 
+    // Tenant tag values outside the configured set collapse into these to keep cardinality bounded
+    private static final String OTHER_TENANT = "other";
+    private static final String NO_TENANT = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final Set<String> knownTenants = new HashSet<>();
+    private final Map<String, Counter> taggedCounters = new ConcurrentHashMap<>();
     private final Counter notificationsSentCounter;
     private final Counter notificationsProcessedCounter;
     private final Counter notificationsFailedCounter;
     private final Counter dlqMessagesCounter;
+    private final Counter dlqRedrivenCounter;
     private final Timer processingTimer;
+    private final Counter outboxRelayFailuresCounter;
+    private final Counter scheduledCounter;
+    private final Counter scheduledReleasedCounter;
+    private final Counter coalescedCounter;
+    private final Counter digestsCounter;
+    private final Counter digestItemsCounter;
+    private final AtomicLong outboxDepth = new AtomicLong();
+    private final AtomicLong outboxRelayLagMillis = new AtomicLong();
+
+    public MetricsService(MeterRegistry meterRegistry, NotificationProperties properties) {
+        this.meterRegistry = meterRegistry;
+        knownTenants.add(properties.getSecurity().getDefaultTenant());
+        properties.getSecurity().getTenants().forEach(tenant -> knownTenants.add(tenant.getId()));
 
-    public MetricsService(MeterRegistry meterRegistry) {
         // Counter for notifications sent to Kafka
         this.notificationsSentCounter = Counter.builder("notifications.sent.total")
                 .description("Total number of notifications sent to Kafka")
@@ -37,20 +65,69 @@ public class MetricsService {
                 .description("Total number of messages sent to DLQ")
                 .register(meterRegistry);
 
+        // Counter for DLQ messages replayed to the main topic
+        this.dlqRedrivenCounter = Counter.builder("notifications.dlq.redriven.total")
+                .description("Total number of DLQ messages redriven to the main topic")
+                .register(meterRegistry);
+
         // Timer for processing duration
         this.processingTimer = Timer.builder("notifications.processing.time")
                 .description("Time taken to process notifications")
                 .register(meterRegistry);
+
+        // Outbox: records waiting for the relay, and age of the oldest one
+        this.outboxRelayFailuresCounter = Counter.builder("notifications.outbox.relay.failures.total")
+                .description("Total number of failed outbox relay batches")
+                .register(meterRegistry);
+
+        // Scheduler: requests accepted with a future sendAt, and those released to Kafka when due
+        this.scheduledCounter = Counter.builder("notifications.scheduled.total")
+                .description("Notifications accepted for delayed delivery")
+                .register(meterRegistry);
+
+        this.scheduledReleasedCounter = Counter.builder("notifications.scheduled.released.total")
+                .description("Scheduled notifications released to Kafka")
+                .register(meterRegistry);
+
+        // Coalescing: messages buffered into a window, and the digests written when windows flush
+        this.coalescedCounter = Counter.builder("notifications.coalesced.total")
+                .description("Notifications buffered into a digest instead of being written individually")
+                .register(meterRegistry);
+
+        this.digestsCounter = Counter.builder("notifications.digests.total")
+                .description("Digest notifications written by the burst coalescer")
+                .register(meterRegistry);
+
+        this.digestItemsCounter = Counter.builder("notifications.digests.items.total")
+                .description("Notifications merged into digests")
+                .register(meterRegistry);
+
+        Gauge.builder("notifications.outbox.depth", outboxDepth, AtomicLong::get)
+                .description("Number of outbox records not yet relayed to Kafka")
+                .register(meterRegistry);
+
+        Gauge.builder("notifications.outbox.relay.lag", outboxRelayLagMillis, AtomicLong::get)
+                .description("Age of the oldest outbox record not yet relayed to Kafka")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
     }
 
     public void incrementNotificationsSent() {
         notificationsSentCounter.increment();
     }
 
+    public void incrementNotificationsSent(int count) {
+        notificationsSentCounter.increment(count);
+    }
+
     public void incrementNotificationsProcessed() {
         notificationsProcessedCounter.increment();
     }
 
+    public void incrementNotificationsProcessed(int count) {
+        notificationsProcessedCounter.increment(count);
+    }
+
     public void incrementNotificationsFailed() {
         notificationsFailedCounter.increment();
     }
@@ -59,6 +136,107 @@ public class MetricsService {
         dlqMessagesCounter.increment();
     }
 
+    public void incrementDlqRedriven(int count) {
+        dlqRedrivenCounter.increment(count);
+    }
+
+    public void incrementTenantRequests(String tenant, String outcome) {
+        String tag = tenantTag(tenant);
+        taggedCounters.computeIfAbsent("requests:" + tag + ":" + outcome, key -> Counter.builder("notifications.tenant.requests.total")
+                .description("API requests per tenant, by rate limit outcome")
+                .tag("tenant", tag)
+                .tag("outcome", outcome)
+                .register(meterRegistry)).increment();
+    }
+
+    public void incrementTenantProcessed(String tenant) {
+        incrementTenantProcessed(tenant, 1);
+    }
+
+    public void incrementTenantProcessed(String tenant, int count) {
+        String tag = tenantTag(tenant);
+        taggedCounters.computeIfAbsent("processed:" + tag, key -> Counter.builder("notifications.tenant.processed.total")
+                .description("Notifications processed successfully per tenant")
+                .tag("tenant", tag)
+                .register(meterRegistry)).increment(count);
+    }
+
+    private String tenantTag(String tenant) {
+        if (tenant == null) {
+            return NO_TENANT;
+        }
+        return knownTenants.contains(tenant) ? tenant : OTHER_TENANT;
+    }
+
+    public void incrementSpansDropped(String reason) {
+        taggedCounters.computeIfAbsent("spans.dropped:" + reason, key -> Counter.builder("tracing.spans.dropped.total")
+                .description("Spans not reported to Zipkin, by reason")
+                .tag("reason", reason)
+                .register(meterRegistry)).increment();
+    }
+
+    public void incrementDeliveries(String channel, String outcome, int count) {
+        taggedCounters.computeIfAbsent("deliveries:" + channel + ":" + outcome, key -> Counter.builder("notifications.delivery.total")
+                .description("Notifications handed to channel providers, by outcome")
+                .tag("channel", channel)
+                .tag("outcome", outcome)
+                .register(meterRegistry)).increment(count);
+    }
+
+    // Circuit state is the ordinal of CircuitBreaker.State: 0 closed, 1 open, 2 half-open
+    public void registerDeliveryChannel(String channel, Supplier<Number> queueDepth, Supplier<Number> circuitState) {
+        Gauge.builder("notifications.delivery.queue.depth", queueDepth)
+                .description("Deliveries waiting in the channel's bulkhead queue")
+                .tag("channel", channel)
+                .register(meterRegistry);
+
+        Gauge.builder("notifications.delivery.circuit.state", circuitState)
+                .description("Channel circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+
+    public void incrementCoalesced() {
+        coalescedCounter.increment();
+    }
+
+    public void incrementDigests(int items) {
+        digestsCounter.increment();
+        digestItemsCounter.increment(items);
+    }
+
+    public void registerCoalescingWindows(Supplier<Number> openWindows) {
+        Gauge.builder("notifications.coalescing.windows", openWindows)
+                .description("Open per-user coalescing windows")
+                .register(meterRegistry);
+    }
+
+    public void incrementScheduled() {
+        scheduledCounter.increment();
+    }
+
+    public void incrementScheduledReleased(int count) {
+        scheduledReleasedCounter.increment(count);
+    }
+
+    public void registerSchedulerLoaded(Supplier<Number> loaded) {
+        Gauge.builder("notifications.scheduler.loaded", loaded)
+                .description("Scheduled notifications held in this node's timing wheel or release queue")
+                .register(meterRegistry);
+    }
+
+    public void incrementOutboxRelayFailures() {
+        outboxRelayFailuresCounter.increment();
+    }
+
+    public void recordOutboxDepth(long records) {
+        outboxDepth.set(records);
+    }
+
+    public void recordOutboxRelayLag(long lagMillis) {
+        outboxRelayLagMillis.set(lagMillis);
+    }
+
     public void recordProcessingTime(long duration, TimeUnit unit) {
         processingTimer.record(duration, unit);
     }
@@ -0,0 +1,86 @@
+package com.streamflow.core.service;
+
+import com.streamflow.core.config.MongoConfig;
+import com.streamflow.core.model.NotificationLog;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Full-text search over {@link NotificationLog#getMessage()} backed by the Mongo text index.
+ * Mongo maintains the index incrementally on every {@code save}, so no separate indexing pipeline is needed.
+ * Searches run on the secondary-preferred read template and only ever match the caller's tenant.
+ */
+@Service
+public class NotificationSearchService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final MongoTemplate mongoTemplate;
+
+    public NotificationSearchService(@Qualifier(MongoConfig.READ_TEMPLATE) MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public Page<NotificationLog> search(String tenant,
+                                        String text,
+                                        String type,
+                                        String channel,
+                                        String userId,
+                                        LocalDateTime start,
+                                        LocalDateTime end,
+                                        boolean sortByRelevance,
+                                        Pageable pageable) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Search text must not be blank");
+        }
+        if (pageable.getPageSize() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must not exceed " + MAX_PAGE_SIZE);
+        }
+
+        TextQuery query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text));
+        if (sortByRelevance) {
+            query.sortByScore();
+        } else {
+            query.with(Sort.by(Sort.Direction.DESC, "timestamp"));
+        }
+
+        query.addCriteria(Criteria.where("tenant").is(tenant));
+        if (type != null) {
+            query.addCriteria(Criteria.where("type").is(type));
+        }
+        if (channel != null) {
+            query.addCriteria(Criteria.where("channel").is(channel));
+        }
+        if (userId != null) {
+            query.addCriteria(Criteria.where("userId").is(userId));
+        }
+        if (start != null || end != null) {
+            Criteria timestamp = Criteria.where("timestamp");
+            if (start != null) {
+                timestamp.gte(start);
+            }
+            if (end != null) {
+                timestamp.lte(end);
+            }
+            query.addCriteria(timestamp);
+        }
+
+        // Copied before paging is applied; only executed when the page doesn't already tell us the total
+        Query countQuery = Query.of(query);
+        List<NotificationLog> content = mongoTemplate.find(query.with(pageable), NotificationLog.class);
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(countQuery, NotificationLog.class));
+    }
+}
@@ -3,51 +3,88 @@ package com.streamflow.core.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.streamflow.core.config.NotificationProperties;
+import com.streamflow.core.coalescing.BurstCoalescer;
 import com.streamflow.core.dto.NotificationRequest;
 import com.streamflow.core.dto.NotificationResponse;
 import com.streamflow.core.dto.NotificationStatsResponse;
+import com.streamflow.core.exception.ResourceNotFoundException;
+import com.streamflow.core.model.DigestItem;
 import com.streamflow.core.model.NotificationLog;
+import com.streamflow.core.model.ScheduledNotification;
+import com.streamflow.core.outbox.OutboxLog;
+import com.streamflow.core.repository.NotificationReadRepository;
 import com.streamflow.core.repository.NotificationRepository;
+import com.streamflow.core.scheduler.NotificationScheduler;
+import com.streamflow.core.tracing.TailSamplingSpanHandler;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.retry.RetryContext;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Recover;
 import org.springframework.retry.annotation.Retryable;
+import org.springframework.retry.support.RetrySynchronizationManager;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 
 @Service
 public class NotificationService {
 
     private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
+    private static final int MAX_ATTEMPTS = 3;
 
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final NotificationRepository repository;
-    private final StringRedisTemplate redisTemplate;
+    private final NotificationReadRepository readRepository;
+    private final RecentFeedService recentFeedService;
     private final NotificationProperties properties;
     private final MetricsService metricsService;
     private final ObjectMapper objectMapper; // <--- ADD THIS
+    private final OutboxLog outboxLog; // null unless notification.outbox.enabled=true
+    private final DlqService dlqService;
+    private final Tracer tracer;
+    private final NotificationWriter notificationWriter;
+    private final BurstCoalescer burstCoalescer;
+    private final NotificationScheduler notificationScheduler;
 
     public NotificationService(KafkaTemplate<String, String> kafkaTemplate,
                                NotificationRepository repository,
-                               StringRedisTemplate redisTemplate,
+                               NotificationReadRepository readRepository,
+                               RecentFeedService recentFeedService,
                                NotificationProperties properties,
                                MetricsService metricsService,
-                               ObjectMapper objectMapper) { // <--- Inject ObjectMapper
+                               ObjectMapper objectMapper, // <--- Inject ObjectMapper
+                               ObjectProvider<OutboxLog> outboxLog,
+                               DlqService dlqService,
+                               Tracer tracer,
+                               NotificationWriter notificationWriter,
+                               BurstCoalescer burstCoalescer,
+                               NotificationScheduler notificationScheduler) {
         this.kafkaTemplate = kafkaTemplate;
         this.repository = repository;
-        this.redisTemplate = redisTemplate;
+        this.readRepository = readRepository;
+        this.recentFeedService = recentFeedService;
         this.properties = properties;
         this.metricsService = metricsService;
         this.objectMapper = objectMapper;
+        this.outboxLog = outboxLog.getIfAvailable();
+        this.dlqService = dlqService;
+        this.tracer = tracer;
+        this.notificationWriter = notificationWriter;
+        this.burstCoalescer = burstCoalescer;
+        this.notificationScheduler = notificationScheduler;
     }
 
     // ========== WRITE PATH (PRODUCER) ==========
@@ -55,9 +92,42 @@ public class NotificationService {
     public NotificationResponse sendNotification(NotificationRequest request) {
         String topic = properties.getKafka().getMainTopic();
         
+        // Delayed delivery: stored durably and released to Kafka when due
+        if (notificationScheduler.shouldSchedule(request.getSendAt())) {
+            ScheduledNotification scheduled = notificationScheduler.schedule(request);
+            return NotificationResponse.builder()
+                    .id(scheduled.getId())
+                    .status("SCHEDULED")
+                    .message(request.getMessage())
+                    .type(request.getType())
+                    .channel(request.getChannel())
+                    .userId(request.getUserId())
+                    .tenant(request.getTenant())
+                    .detail("Notification scheduled for " + request.getSendAt())
+                    .queuedAt(LocalDateTime.now())
+                    .build();
+        }
+
         try {
             // FIX: Serialize the WHOLE request object to JSON
             String payload = objectMapper.writeValueAsString(request);
+
+            // Outbox mode: return once the record is fsynced locally, the relay ships it to Kafka
+            if (outboxLog != null) {
+                outboxLog.append(payload);
+                log.info("Appended payload to outbox for topic '{}': {}", topic, payload);
+
+                return NotificationResponse.builder()
+                        .status("ACCEPTED")
+                        .message(request.getMessage())
+                        .type(request.getType())
+                        .channel(request.getChannel())
+                        .userId(request.getUserId())
+                        .tenant(request.getTenant())
+                        .detail("Notification persisted to outbox, pending relay to Kafka")
+                        .queuedAt(LocalDateTime.now())
+                        .build();
+            }
             
             kafkaTemplate.send(topic, payload);
             metricsService.incrementNotificationsSent();
@@ -69,6 +139,7 @@ public class NotificationService {
                     .type(request.getType())
                     .channel(request.getChannel())
                     .userId(request.getUserId())
+                    .tenant(request.getTenant())
                     .detail("Notification queued successfully")
                     .queuedAt(LocalDateTime.now())
                     .build();
@@ -87,45 +158,38 @@ public class NotificationService {
     )
     @Retryable(
             retryFor = RuntimeException.class,
-            maxAttempts = 3,
+            maxAttempts = MAX_ATTEMPTS,
             backoff = @Backoff(delay = 1000, multiplier = 2)
     )
-    public void consume(String payload) {
+    public void consume(ConsumerRecord<String, String> record) {
         Timer.Sample sample = metricsService.startTimer();
+        String payload = record.value();
         
         try {
             log.info("Processing payload: {}", payload);
 
-            // Simulation of failure
-            if (payload.contains("error")) {
-                throw new RuntimeException("Simulated API Failure!");
-            }
-
             // FIX: Deserialize JSON back to Object
             NotificationRequest request = objectMapper.readValue(payload, NotificationRequest.class);
 
-            // Step A: Persistent Storage (MongoDB)
-            // Now we map ALL fields (userId, type, channel)
-            NotificationLog entity = new NotificationLog(
-                    request.getMessage(),
-                    request.getType(),
-                    request.getChannel(),
-                    request.getUserId(),
-                    LocalDateTime.now()
-            );
-            
-            repository.save(entity);
-            log.info("Saved to MongoDB: [User: {}, Type: {}]", request.getUserId(), request.getType());
-
-            // Step B: Performance Cache (Redis)
-            String redisKey = properties.getRedis().getRecentNotificationsKey();
-            int limit = properties.getRedis().getRecentNotificationsLimit();
-
-            // We cache the full JSON payload so the "Recent" endpoint returns rich data too
-            redisTemplate.opsForList().leftPush(redisKey, payload);
-            redisTemplate.opsForList().trim(redisKey, 0, limit - 1);
+            // Part of a burst for this user and channel: folded into the next digest, and counted
+            // as processed once that digest is written
+            if (burstCoalescer.offer(request)) {
+                log.debug("Coalesced notification for user {}", request.getUserId());
+            } else {
+                // Now we map ALL fields (userId, type, channel)
+                NotificationLog entity = new NotificationLog(
+                        request.getMessage(),
+                        request.getType(),
+                        request.getChannel(),
+                        request.getUserId(),
+                        request.getTenant(),
+                        LocalDateTime.now()
+                );
+                notificationWriter.write(entity, payload);
+                metricsService.incrementNotificationsProcessed();
+                metricsService.incrementTenantProcessed(request.getTenant());
+            }
 
-            metricsService.incrementNotificationsProcessed();
             metricsService.stopTimer(sample);
             
         } catch (Exception e) {
@@ -138,10 +202,21 @@ public class NotificationService {
     // ========== FALLBACK (RECOVER) ==========
 
     @Recover
-    public void recover(RuntimeException e, String payload) {
-        log.error("All retries failed. Sending to DLQ: {}", payload);
-        String dlqTopic = properties.getKafka().getDlqTopic();
-        kafkaTemplate.send(dlqTopic, "FAILED_PAYLOAD: " + payload);
+    public void recover(RuntimeException e, ConsumerRecord<String, String> record) {
+        log.error("All retries failed. Sending to DLQ: {}", record.value());
+
+        // Classify by the real failure, not the RuntimeException wrapper thrown to trigger retry
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+        RetryContext context = RetrySynchronizationManager.getContext();
+        int attempts = (context != null) ? context.getRetryCount() : MAX_ATTEMPTS;
+
+        // Make the tail sampler keep this trace even if it wasn't head-sampled
+        Span span = tracer.currentSpan();
+        if (span != null) {
+            span.tag(TailSamplingSpanHandler.DLQ_TAG, "true");
+        }
+
+        kafkaTemplate.send(dlqService.toDlqRecord(record, cause, attempts));
         metricsService.incrementDlqMessages();
     }
 
@@ -151,45 +226,72 @@ public class NotificationService {
             topics = "#{notificationProperties.kafka.dlqTopic}",
             groupId = "#{notificationProperties.kafka.dlqConsumerGroup}"
     )
-    public void consumeDLQ(String message) {
-        log.warn("DLQ Analysis Required: {}", message);
+    public void consumeDLQ(ConsumerRecord<String, String> record) {
+        dlqService.index(record);
     }
 
     // ========== READ PATHS ==========
 
-    public List<String> getRecentNotifications() {
-        String redisKey = properties.getRedis().getRecentNotificationsKey();
-        // Returns list of JSON strings
-        return redisTemplate.opsForList().range(redisKey, 0, -1);
+    public RecentFeedService.Slice getRecentNotifications(String tenant, LocalDateTime since, Integer limit) {
+        NotificationProperties.Redis config = properties.getRedis();
+        int effectiveLimit = (limit != null) ? limit : config.getRecentNotificationsLimit();
+        if (effectiveLimit < 1 || effectiveLimit > config.getRecentFeedMaxSize()) {
+            throw new IllegalArgumentException("limit must be between 1 and " + config.getRecentFeedMaxSize());
+        }
+        // Returns list of JSON strings, newest first
+        return recentFeedService.range(tenant, since != null ? toEpochMillis(since) : null, effectiveLimit);
+    }
+
+    private static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
 
     // ... (Keep your existing Mongo query methods below: getNotificationHistory, getNotificationsByType, etc.)
     
-    public Page<NotificationLog> getNotificationHistory(Pageable pageable) {
-        return repository.findAllByOrderByTimestampDesc(pageable);
+    // Reads below are scoped to the caller's tenant. They go to the secondary-preferred template, except the
+    // digest lookup which must see its own write and the stats, which are cached under an ETag bumped by
+    // writes on the primary
+
+    public Page<NotificationLog> getNotificationHistory(String tenant, String userId, Pageable pageable) {
+        return readRepository.findHistory(tenant, userId, pageable);
+    }
+
+    /**
+     * Individual notifications behind a digest; a plain notification returns itself as the only item.
+     * Pass the owner's userId so the lookup goes to one shard; without it every shard is asked.
+     */
+    public List<DigestItem> getNotificationItems(String tenant, String id, String userId) {
+        NotificationLog notification = (userId != null
+                ? repository.findByIdAndTenantAndUserId(id, tenant, userId)
+                : repository.findByIdAndTenant(id, tenant))
+                .orElseThrow(() -> new ResourceNotFoundException("Notification not found: " + id));
+        if (notification.getItems() != null) {
+            return notification.getItems();
+        }
+        return List.of(new DigestItem(notification.getMessage(), notification.getType(), notification.getTimestamp()));
     }
 
-    public List<NotificationLog> getNotificationsByType(String type) {
-        return repository.findByTypeOrderByTimestampDesc(type);
+    public List<NotificationLog> getNotificationsByType(String tenant, String type, String userId) {
+        return readRepository.findByType(tenant, type, userId);
     }
 
-    public List<NotificationLog> getNotificationsByUser(String userId) {
-        return repository.findByUserIdOrderByTimestampDesc(userId);
+    public List<NotificationLog> getNotificationsByUser(String tenant, String userId) {
+        return readRepository.findByUser(tenant, userId);
     }
 
-    public List<NotificationLog> getNotificationsByChannel(String channel) {
-        return repository.findByChannelOrderByTimestampDesc(channel);
+    public List<NotificationLog> getNotificationsByChannel(String tenant, String channel, String userId) {
+        return readRepository.findByChannel(tenant, channel, userId);
     }
 
-    public List<NotificationLog> getNotificationsByTimeRange(LocalDateTime start, LocalDateTime end) {
-        return repository.findByTimestampBetweenOrderByTimestampDesc(start, end);
+    public List<NotificationLog> getNotificationsByTimeRange(String tenant, LocalDateTime start, LocalDateTime end, String userId) {
+        return readRepository.findByTimeRange(tenant, start, end, userId);
     }
 
-    public NotificationStatsResponse getNotificationStats() {
-        long total = repository.count();
-        long info = repository.countByType("INFO");
-        long warn = repository.countByType("WARN");
-        long error = repository.countByType("ERROR");
+    public NotificationStatsResponse getNotificationStats(String tenant) {
+        long total = repository.countByTenant(tenant);
+        long info = repository.countByTenantAndType(tenant, "INFO");
+        long warn = repository.countByTenantAndType(tenant, "WARN");
+        long error = repository.countByTenantAndType(tenant, "ERROR");
 
         return NotificationStatsResponse.builder()
                 .totalNotifications(total)
@@ -0,0 +1,57 @@
+package com.streamflow.core.service;
+
+import com.streamflow.core.delivery.DeliveryService;
+import com.streamflow.core.model.NotificationLog;
+import com.streamflow.core.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+
+/**
+ * Write path shared by the Kafka consumer and the burst coalescer: persist, feed, invalidate, deliver.
+ */
+@Service
+public class NotificationWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationWriter.class);
+
+    private final NotificationRepository repository;
+    private final RecentFeedService recentFeedService;
+    private final ResponseCacheService responseCacheService;
+    private final DeliveryService deliveryService;
+
+    public NotificationWriter(NotificationRepository repository,
+                              RecentFeedService recentFeedService,
+                              ResponseCacheService responseCacheService,
+                              DeliveryService deliveryService) {
+        this.repository = repository;
+        this.recentFeedService = recentFeedService;
+        this.responseCacheService = responseCacheService;
+        this.deliveryService = deliveryService;
+    }
+
+    /**
+     * @param feedPayload JSON shown for this notification in the recent feed
+     */
+    public NotificationLog write(NotificationLog entity, String feedPayload) {
+        deliveryService.markPending(entity);
+
+        // Step A: Persistent Storage (MongoDB)
+        NotificationLog saved = repository.save(entity);
+        log.info("Saved to MongoDB: [User: {}, Type: {}]", saved.getUserId(), saved.getType());
+
+        // Step B: Performance Cache (Redis)
+        // We cache the full JSON payload so the "Recent" endpoint returns rich data too
+        recentFeedService.add(saved.getTenant(), saved.getId(),
+                saved.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), feedPayload);
+
+        // Step C: Invalidate cached /recent and /stats bodies
+        responseCacheService.markChanged();
+
+        // Step D: Hand off to the channel's delivery workers (never blocks this thread)
+        deliveryService.dispatch(saved);
+        return saved;
+    }
+}
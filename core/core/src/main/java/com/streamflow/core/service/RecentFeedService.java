@@ -0,0 +1,94 @@
+package com.streamflow.core.service;
+
+import com.streamflow.core.config.NotificationProperties;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import lombok.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-tenant recent feed, one Redis sorted set per tenant ({@code <recentFeedKey>:<tenant>}) scored by epoch millis.
+ *
+ * Members are {@code <notificationId>:<payload>} so identical payloads don't collapse into one entry.
+ * The set is capped by size and by age, but pruning only runs every {@code recentFeedPruneEvery}
+ * writes and is pipelined with the ZADD, so most writes cost a single command.
+ */
+@Service
+public class RecentFeedService {
+
+    private final StringRedisTemplate redisTemplate;
+    private final NotificationProperties properties;
+    private final AtomicLong writes = new AtomicLong();
+
+    public RecentFeedService(StringRedisTemplate redisTemplate, NotificationProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    public void add(String tenant, String notificationId, long timestampMillis, String payload) {
+        NotificationProperties.Redis config = properties.getRedis();
+        String key = feedKey(tenant);
+        String member = notificationId + ":" + payload;
+        boolean prune = writes.incrementAndGet() % Math.max(1, config.getRecentFeedPruneEvery()) == 0;
+
+        if (!prune) {
+            redisTemplate.opsForZSet().add(key, member, timestampMillis);
+            return;
+        }
+
+        double cutoff = System.currentTimeMillis() - config.getRecentFeedWindow().toMillis();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            redis.zAdd(key, timestampMillis, member);
+            redis.zRemRangeByScore(key, Double.NEGATIVE_INFINITY, cutoff);
+            redis.zRemRange(key, 0, -(config.getRecentFeedMaxSize() + 1L));
+            return null;
+        });
+    }
+
+    /**
+     * Newest-first payloads with a timestamp at or after {@code sinceMillis}, bounded by the feed window.
+     */
+    public Slice range(String tenant, Long sinceMillis, int limit) {
+        NotificationProperties.Redis config = properties.getRedis();
+        long window = config.getRecentFeedWindow().toMillis();
+        long windowStart = System.currentTimeMillis() - window;
+        double min = (sinceMillis != null) ? Math.max(sinceMillis, windowStart) : windowStart;
+
+        Set<ZSetOperations.TypedTuple<String>> members = redisTemplate.opsForZSet()
+                .reverseRangeByScoreWithScores(feedKey(tenant), min, Double.POSITIVE_INFINITY, 0, limit);
+
+        List<String> payloads = new ArrayList<>();
+        long validUntil = Long.MAX_VALUE;
+        if (members != null) {
+            for (ZSetOperations.TypedTuple<String> member : members) {
+                String value = member.getValue();
+                payloads.add(value.substring(value.indexOf(':') + 1));
+                // Newest first, so the last one is the first to age out
+                validUntil = member.getScore().longValue() + window;
+            }
+        }
+        return new Slice(payloads, validUntil);
+    }
+
+    /**
+     * A range result and the epoch millis at which its oldest entry leaves the window, i.e. the
+     * earliest time the same query can return something else without a write ({@code Long.MAX_VALUE} if empty).
+     */
+    @Value
+    public static class Slice {
+        List<String> payloads;
+        long validUntilMillis;
+    }
+
+    private String feedKey(String tenant) {
+        return properties.getRedis().getRecentFeedKey() + ":" + tenant;
+    }
+}
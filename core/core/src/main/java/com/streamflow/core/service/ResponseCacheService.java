@@ -0,0 +1,197 @@
+package com.streamflow.core.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamflow.core.config.NotificationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Version-stamped cache of serialized read responses.
+ *
+ * Consumers call {@link #markChanged()}; a scheduled refresh folds those changes into a Redis
+ * counter and pulls the cluster-wide value back, so request threads only ever read a local
+ * volatile. While Redis is unreachable, or the refresh hasn't succeeded within {@code maxVersionAgeMs}
+ * (e.g. the scheduler is stalled), the version is unknown and callers must bypass the cache,
+ * because reusing an old version number could serve a 304 for changed data.
+ *
+ * A body may also change without a write, e.g. when the oldest entry of a /recent result ages out
+ * of the feed window. Loaders report that moment as {@code validUntilMillis}; the entry is rebuilt
+ * once it passes, and the time is part of the ETag, so a client's validator stays good exactly as
+ * long as the body it describes. Until then a matching If-None-Match is answered from this cache alone.
+ */
+@Service
+public class ResponseCacheService {
+
+    public static final long UNKNOWN_VERSION = -1;
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCacheService.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final NotificationProperties.ResponseCache config;
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile long version = UNKNOWN_VERSION;
+    private volatile long refreshedAtNanos;
+    private final Map<String, CachedBody> bodies;
+
+    public ResponseCacheService(StringRedisTemplate redisTemplate,
+                                ObjectMapper objectMapper,
+                                NotificationProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.config = properties.getResponseCache();
+
+        int maxEntries = config.getMaxEntries();
+        this.bodies = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedBody> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    // ========== VERSION ==========
+
+    public void markChanged() {
+        dirty.set(true);
+    }
+
+    public long currentVersion() {
+        if (!config.isEnabled()) {
+            return UNKNOWN_VERSION;
+        }
+        long current = version;
+        if (System.nanoTime() - refreshedAtNanos > TimeUnit.MILLISECONDS.toNanos(config.getMaxVersionAgeMs())) {
+            return UNKNOWN_VERSION;
+        }
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.response-cache.version-refresh-ms:100}")
+    public void refreshVersion() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            Long latest;
+            if (dirty.getAndSet(false)) {
+                latest = redisTemplate.opsForValue().increment(config.getVersionKey());
+            } else {
+                String value = redisTemplate.opsForValue().get(config.getVersionKey());
+                latest = (value != null) ? Long.valueOf(value) : 0L;
+            }
+            version = (latest != null) ? latest : UNKNOWN_VERSION;
+            refreshedAtNanos = System.nanoTime();
+        } catch (RuntimeException e) {
+            // Re-mark so the change is published once Redis is back
+            dirty.set(true);
+            if (version != UNKNOWN_VERSION) {
+                log.warn("Response cache version refresh failed, bypassing cache: {}", e.getMessage());
+            }
+            version = UNKNOWN_VERSION;
+        }
+    }
+
+    // ========== BODIES ==========
+
+    /**
+     * A value that stays correct until the next write; see {@link #expiring(Object, long)} otherwise.
+     */
+    public static Loaded unchanging(Object value) {
+        return new Loaded(value, Long.MAX_VALUE);
+    }
+
+    /**
+     * A value that may change without a write once {@code validUntilMillis} (epoch millis) has passed.
+     */
+    public static Loaded expiring(Object value, long validUntilMillis) {
+        return new Loaded(value, validUntilMillis);
+    }
+
+    /**
+     * Returns the serialized body for {@code key}, reusing the cached bytes if they were built at
+     * {@code version} and have not expired. The result has no ETag when the version is unknown.
+     */
+    public CachedBody getOrCompute(String key, long version, Supplier<Loaded> loader) {
+        if (version != UNKNOWN_VERSION) {
+            CachedBody cached;
+            synchronized (bodies) {
+                cached = bodies.get(key);
+            }
+            if (cached != null && cached.version == version && System.currentTimeMillis() < cached.validUntilMillis) {
+                return cached;
+            }
+        }
+
+        Loaded loaded = loader.get();
+        byte[] body = serialize(loaded.value);
+        if (version == UNKNOWN_VERSION) {
+            return new CachedBody(version, loaded.validUntilMillis, body, null);
+        }
+        CachedBody computed = new CachedBody(version, loaded.validUntilMillis, body, etag(key, version, loaded.validUntilMillis));
+        synchronized (bodies) {
+            bodies.put(key, computed);
+        }
+        return computed;
+    }
+
+    // Strong ETag; includes the key so different queries never share one
+    private static String etag(String key, long version, long validUntilMillis) {
+        String expiry = validUntilMillis == Long.MAX_VALUE ? "" : "-" + Long.toHexString(validUntilMillis);
+        return "\"" + version + expiry + "-" + Integer.toHexString(key.hashCode()) + "\"";
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response body", e);
+        }
+    }
+
+    public static final class Loaded {
+        private final Object value;
+        private final long validUntilMillis;
+
+        private Loaded(Object value, long validUntilMillis) {
+            this.value = value;
+            this.validUntilMillis = validUntilMillis;
+        }
+    }
+
+    public static final class CachedBody {
+        private final long version;
+        private final long validUntilMillis;
+        private final byte[] body;
+        private final String etag;
+
+        CachedBody(long version, long validUntilMillis, byte[] body, String etag) {
+            this.version = version;
+            this.validUntilMillis = validUntilMillis;
+            this.body = body;
+            this.etag = etag;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * @return the validator for this body, or null when it must not be cached by clients
+         */
+        public String getEtag() {
+            return etag;
+        }
+    }
+}
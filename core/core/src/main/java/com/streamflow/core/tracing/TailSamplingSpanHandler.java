@@ -0,0 +1,203 @@
+package com.streamflow.core.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import com.streamflow.core.config.NotificationProperties;
+import com.streamflow.core.security.TokenBucket;
+import com.streamflow.core.service.MetricsService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First span handler in the Brave chain; decides what reaches the Zipkin reporter.
+ *
+ * Head-sampled traces (the base rate from {@code management.tracing.sampling.probability}) pass
+ * straight through. Every other trace is still recorded locally and its spans are buffered per
+ * trace id until the local root span finishes; the trace is then reported only if it errored,
+ * handed a message to the DLQ, or was slower than {@code slowThresholdMs}. A global spans-per-second
+ * cap applies to everything that gets reported. Spans that finish after their root (e.g. async
+ * Kafka send callbacks) follow the decision already taken for their trace.
+ */
+public class TailSamplingSpanHandler extends SpanHandler {
+
+    public static final String DLQ_TAG = "streamflow.dlq";
+
+    private static final String REASON_RATE_LIMITED = "rate_limited";
+    private static final String REASON_NOT_SAMPLED = "not_sampled";
+    private static final String REASON_BUFFER_FULL = "buffer_full";
+    private static final String REASON_EXPIRED = "expired";
+
+    private final SpanHandler reporter;
+    private final ObjectProvider<MetricsService> metricsService;
+    private final NotificationProperties.Tracing config;
+    private final TokenBucket reportLimiter;
+
+    private final Map<Long, TraceBuffer> buffers = new ConcurrentHashMap<>();
+    private final Map<Long, Boolean> decisions;
+
+    public TailSamplingSpanHandler(SpanHandler reporter,
+                                   ObjectProvider<MetricsService> metricsService,
+                                   NotificationProperties properties) {
+        this.reporter = reporter;
+        this.metricsService = metricsService;
+        this.config = properties.getTracing();
+        this.reportLimiter = new TokenBucket(config.getMaxSpansPerSecond(), config.getMaxSpansPerSecond(), 1);
+
+        int maxDecisions = config.getMaxBufferedTraces();
+        this.decisions = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > maxDecisions;
+            }
+        };
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause != Cause.FINISHED) {
+            return true;
+        }
+
+        // Head-sampled: report now, subject to the global cap
+        if (Boolean.TRUE.equals(context.sampled())) {
+            return tryReport(REASON_RATE_LIMITED);
+        }
+
+        long traceId = context.traceId();
+        if (!context.isLocalRoot()) {
+            Boolean decided;
+            synchronized (decisions) {
+                decided = decisions.get(traceId);
+            }
+            if (decided != null) {
+                if (decided) {
+                    report(context, span);
+                } else {
+                    dropped(REASON_NOT_SAMPLED);
+                }
+                return false;
+            }
+            buffer(traceId, context, span);
+            return false;
+        }
+
+        // Local root finished: decide for the whole local trace
+        TraceBuffer buffer = buffers.remove(traceId);
+        List<BufferedSpan> spans = (buffer != null) ? buffer.drain() : new ArrayList<>();
+        spans.add(new BufferedSpan(context, span));
+
+        boolean keep = false;
+        for (BufferedSpan buffered : spans) {
+            keep |= isInteresting(buffered.span);
+        }
+        keep |= span.finishTimestamp() - span.startTimestamp() > TimeUnit.MILLISECONDS.toMicros(config.getSlowThresholdMs());
+
+        synchronized (decisions) {
+            decisions.put(traceId, keep);
+        }
+        for (BufferedSpan buffered : spans) {
+            if (keep) {
+                report(buffered.context, buffered.span);
+            } else {
+                dropped(REASON_NOT_SAMPLED);
+            }
+        }
+        return false;
+    }
+
+    private boolean isInteresting(MutableSpan span) {
+        return span.error() != null
+                || span.tag("error") != null
+                || span.tag(DLQ_TAG) != null;
+    }
+
+    private void buffer(long traceId, TraceContext context, MutableSpan span) {
+        TraceBuffer buffer = buffers.get(traceId);
+        if (buffer == null) {
+            if (buffers.size() >= config.getMaxBufferedTraces()) {
+                dropped(REASON_BUFFER_FULL);
+                return;
+            }
+            buffer = buffers.computeIfAbsent(traceId, id -> new TraceBuffer());
+        }
+        if (!buffer.add(new BufferedSpan(context, span), config.getMaxSpansPerTrace())) {
+            dropped(REASON_BUFFER_FULL);
+        }
+    }
+
+    private void report(TraceContext context, MutableSpan span) {
+        if (tryReport(REASON_RATE_LIMITED)) {
+            reporter.end(context, span, Cause.FINISHED);
+        }
+    }
+
+    private boolean tryReport(String reasonIfRejected) {
+        if (reportLimiter.tryAcquire()) {
+            return true;
+        }
+        dropped(reasonIfRejected);
+        return false;
+    }
+
+    private void dropped(String reason) {
+        MetricsService metrics = metricsService.getIfAvailable();
+        if (metrics != null) {
+            metrics.incrementSpansDropped(reason);
+        }
+    }
+
+    /**
+     * Drops buffers whose local root never finished, e.g. spans from a request that is still hanging.
+     * Runs every {@code bufferEvictIntervalMs}, so a buffer lives at most that much past {@code bufferTtlMs}.
+     */
+    @Scheduled(fixedDelayString = "${notification.tracing.buffer-evict-interval-ms:1000}")
+    public void evictStaleBuffers() {
+        evictStaleBuffers(System.nanoTime());
+    }
+
+    void evictStaleBuffers(long nowNanos) {
+        long cutoff = nowNanos - TimeUnit.MILLISECONDS.toNanos(config.getBufferTtlMs());
+        buffers.entrySet().removeIf(entry -> {
+            boolean stale = entry.getValue().createdAt - cutoff < 0;
+            if (stale) {
+                dropped(REASON_EXPIRED);
+            }
+            return stale;
+        });
+    }
+
+    private static final class BufferedSpan {
+        private final TraceContext context;
+        private final MutableSpan span;
+
+        BufferedSpan(TraceContext context, MutableSpan span) {
+            this.context = context;
+            this.span = span;
+        }
+    }
+
+    private static final class TraceBuffer {
+        private final long createdAt = System.nanoTime();
+        private final List<BufferedSpan> spans = new ArrayList<>();
+
+        synchronized boolean add(BufferedSpan span, int maxSpans) {
+            if (spans.size() >= maxSpans) {
+                return false;
+            }
+            spans.add(span);
+            return true;
+        }
+
+        synchronized List<BufferedSpan> drain() {
+            return new ArrayList<>(spans);
+        }
+    }
+}
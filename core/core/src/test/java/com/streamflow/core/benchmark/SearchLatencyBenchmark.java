@@ -0,0 +1,149 @@
+package com.streamflow.core.benchmark;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import com.streamflow.core.model.NotificationLog;
+import com.streamflow.core.service.NotificationSearchService;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Query latency of {@link NotificationSearchService} against a large seeded collection.
+ *
+ * Not picked up by the default surefire includes; run explicitly:
+ * {@code ./mvnw test -Dtest=SearchLatencyBenchmark -Dbenchmark.documents=10000000}
+ */
+@Testcontainers
+class SearchLatencyBenchmark {
+
+    private static final int DOCUMENTS = Integer.getInteger("benchmark.documents", 10_000_000);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 200);
+    private static final int BATCH_SIZE = 10_000;
+
+    private static final String[] WORDS = {
+            "order", "confirmed", "shipped", "delivered", "payment", "failed", "refund", "issued",
+            "password", "reset", "login", "alert", "invoice", "overdue", "subscription", "renewed",
+            "cart", "abandoned", "coupon", "expiring", "account", "locked", "report", "ready"
+    };
+    private static final String TENANT = "benchmark";
+    private static final String[] TYPES = {"INFO", "WARN", "ERROR"};
+    private static final String[] CHANNELS = {"EMAIL", "SMS", "PUSH", "SYSTEM"};
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0");
+
+    private static MongoClient client;
+    private static NotificationSearchService searchService;
+
+    @BeforeAll
+    static void seed() {
+        client = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        MongoTemplate mongoTemplate = new MongoTemplate(client, "benchmark");
+        searchService = new NotificationSearchService(mongoTemplate);
+
+        // Bulk load first, then build indexes once, which is far faster than indexing per insert
+        MongoCollection<Document> logs = mongoTemplate.getCollection("logs");
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        long started = System.nanoTime();
+        List<Document> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            batch.add(new Document("message", sentence(random))
+                    .append("type", TYPES[random.nextInt(TYPES.length)])
+                    .append("channel", CHANNELS[random.nextInt(CHANNELS.length)])
+                    .append("userId", "user-" + random.nextInt(100_000))
+                    .append("tenant", TENANT)
+                    .append("timestamp", new Date(now - (long) random.nextInt(30 * 24 * 3600) * 1000)));
+            if (batch.size() == BATCH_SIZE) {
+                logs.insertMany(batch, new InsertManyOptions().ordered(false));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            logs.insertMany(batch, new InsertManyOptions().ordered(false));
+        }
+
+        IndexOperations indexOps = mongoTemplate.indexOps(NotificationLog.class);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(NotificationLog.class)
+                .forEach(indexOps::ensureIndex);
+        System.out.printf("Seeded and indexed %,d documents in %d s%n", DOCUMENTS,
+                (System.nanoTime() - started) / 1_000_000_000L);
+    }
+
+    @AfterAll
+    static void close() {
+        client.close();
+    }
+
+    @Test
+    void searchLatency() {
+        LocalDateTime lastDay = LocalDateTime.now(ZoneId.systemDefault()).minusDays(1);
+
+        System.out.printf("%-32s %10s %10s %10s%n", "scenario", "p50 ms", "p95 ms", "p99 ms");
+        measure("text, relevance", () -> searchService.search(TENANT,
+                "payment failed", null, null, null, null, null, true, PageRequest.of(0, 20)));
+        measure("text, newest first", () -> searchService.search(TENANT,
+                "payment failed", null, null, null, null, null, false, PageRequest.of(0, 20)));
+        measure("text + type + channel", () -> searchService.search(TENANT,
+                "refund", "WARN", "EMAIL", null, null, null, true, PageRequest.of(0, 20)));
+        measure("text + userId", () -> searchService.search(TENANT,
+                "invoice", null, null, "user-4242", null, null, true, PageRequest.of(0, 20)));
+        measure("text + last 24h", () -> searchService.search(TENANT,
+                "account locked", null, null, null, lastDay, null, false, PageRequest.of(0, 20)));
+        measure("phrase, page 5", () -> searchService.search(TENANT,
+                "\"password reset\"", null, null, null, null, null, true, PageRequest.of(5, 20)));
+    }
+
+    private static void measure(String scenario, Supplier<?> query) {
+        for (int i = 0; i < Math.max(5, ITERATIONS / 10); i++) {
+            query.get();
+        }
+        long[] samples = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            query.get();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        System.out.printf("%-32s %10.2f %10.2f %10.2f%n", scenario,
+                percentile(samples, 0.50), percentile(samples, 0.95), percentile(samples, 0.99));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static String sentence(Random random) {
+        StringBuilder sentence = new StringBuilder();
+        int words = 4 + random.nextInt(8);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+}
@@ -0,0 +1,209 @@
+package com.streamflow.core.benchmark;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Startup time and time-to-first-message for each deployment mode, as seen by a pod that is
+ * scaled out while the topic already has lag.
+ *
+ * Each run pre-loads a fresh topic, launches the packaged app as a separate process and measures
+ * from process launch until {@code /actuator/health} answers (ready) and until the first queued
+ * message is persisted to Mongo (first message). Modes whose artifact is missing are skipped.
+ *
+ * Build the artifacts first, then run explicitly:
+ * {@code ./mvnw -Paot-cds package -DskipTests} (jvm + aot-cds),
+ * {@code ./mvnw -Pnative native:compile -DskipTests} (native),
+ * {@code ./mvnw test -Dtest=StartupBenchmark -Dbenchmark.iterations=5}
+ */
+@Testcontainers
+class StartupBenchmark {
+
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 5);
+    private static final int BACKLOG = Integer.getInteger("benchmark.backlog", 100);
+    private static final List<String> MODES = Arrays.asList(System.getProperty("benchmark.modes", "jvm,aot-cds,native").split(","));
+    private static final Duration TIMEOUT = Duration.ofSeconds(120);
+
+    private static final File TARGET = new File("target");
+    private static final String JAR = "core-0.0.1-SNAPSHOT.jar";
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0");
+
+    @Container
+    static KafkaContainer kafkaContainer = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.4.0"));
+
+    @Container
+    static GenericContainer<?> redisContainer = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    private static MongoClient mongoClient;
+    private static MongoCollection<Document> logs;
+    private static KafkaProducer<String, String> producer;
+
+    @BeforeAll
+    static void connect() {
+        mongoClient = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        logs = mongoClient.getDatabase("test").getCollection("logs");
+        producer = new KafkaProducer<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers(),
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class));
+    }
+
+    @AfterAll
+    static void close() {
+        producer.close();
+        mongoClient.close();
+    }
+
+    @Test
+    void startupAndFirstMessage() throws Exception {
+        System.out.printf("%-10s %14s %14s %20s %20s%n", "mode", "ready p50 ms", "ready min ms", "first msg p50 ms", "first msg min ms");
+        for (String mode : MODES) {
+            List<String> command = command(mode.trim());
+            if (command == null) {
+                System.out.printf("%-10s %s%n", mode, "skipped (artifact not built)");
+                continue;
+            }
+            long[] ready = new long[ITERATIONS];
+            long[] firstMessage = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                long[] run = run(mode.trim(), i, command);
+                ready[i] = run[0];
+                firstMessage[i] = run[1];
+            }
+            Arrays.sort(ready);
+            Arrays.sort(firstMessage);
+            System.out.printf("%-10s %14d %14d %20d %20d%n", mode,
+                    ready[ITERATIONS / 2], ready[0], firstMessage[ITERATIONS / 2], firstMessage[0]);
+        }
+    }
+
+    private static List<String> command(String mode) {
+        String java = new File(System.getProperty("java.home"), "bin/java").getPath();
+        switch (mode) {
+            case "jvm": {
+                File jar = new File(TARGET, JAR);
+                return jar.exists() ? List.of(java, "-jar", jar.getPath()) : null;
+            }
+            case "aot-cds": {
+                File application = new File(TARGET, "application");
+                File archive = new File(application, "application.jsa");
+                return archive.exists()
+                        ? List.of(java, "-XX:SharedArchiveFile=" + archive.getPath(), "-Dspring.aot.enabled=true",
+                                "-jar", new File(application, JAR).getPath())
+                        : null;
+            }
+            case "native": {
+                File binary = new File(TARGET, "streamflow-core");
+                return binary.canExecute() ? List.of(binary.getPath()) : null;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+    }
+
+    /**
+     * @return {readyMillis, firstMessageMillis}, both measured from process launch
+     */
+    private static long[] run(String mode, int iteration, List<String> command) throws Exception {
+        String topic = "startup-" + mode + "-" + iteration + "-" + System.nanoTime();
+        String userId = "bench-" + topic;
+        for (int i = 0; i < BACKLOG; i++) {
+            producer.send(new ProducerRecord<>(topic, userId, "{\"userId\":\"" + userId
+                    + "\",\"message\":\"backlog " + i + "\",\"type\":\"INFO\",\"channel\":\"EMAIL\"}"));
+        }
+        producer.flush();
+
+        int port = freePort();
+        List<String> args = new ArrayList<>(command);
+        args.add("--server.port=" + port);
+        args.add("--spring.data.mongodb.uri=" + mongoDBContainer.getReplicaSetUrl());
+        args.add("--spring.kafka.bootstrap-servers=" + kafkaContainer.getBootstrapServers());
+        args.add("--spring.data.redis.host=" + redisContainer.getHost());
+        args.add("--spring.data.redis.port=" + redisContainer.getMappedPort(6379));
+        args.add("--notification.kafka.main-topic=" + topic);
+
+        File log = new File(TARGET, "startup-benchmark-" + mode + "-" + iteration + ".log");
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(args).redirectErrorStream(true).redirectOutput(log).start();
+        try {
+            long ready = -1;
+            long firstMessage = -1;
+            long deadline = started + TIMEOUT.toNanos();
+            while ((ready < 0 || firstMessage < 0) && System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode + " exited early, see " + log);
+                }
+                if (ready < 0 && isHealthy(port)) {
+                    ready = elapsedMillis(started);
+                }
+                if (firstMessage < 0 && logs.countDocuments(new Document("userId", userId)) > 0) {
+                    firstMessage = elapsedMillis(started);
+                }
+                Thread.sleep(10);
+            }
+            if (ready < 0 || firstMessage < 0) {
+                throw new IllegalStateException(mode + " not ready within " + TIMEOUT + ", see " + log);
+            }
+            return new long[]{ready, firstMessage};
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static boolean isHealthy(int port) {
+        try {
+            HttpResponse<Void> response = http.send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health")).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000_000L;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
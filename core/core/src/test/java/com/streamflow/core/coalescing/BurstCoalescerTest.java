@@ -0,0 +1,179 @@
+package com.streamflow.core.coalescing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamflow.core.config.NotificationProperties;
+import com.streamflow.core.dto.NotificationRequest;
+import com.streamflow.core.model.NotificationLog;
+import com.streamflow.core.service.DlqService;
+import com.streamflow.core.service.MetricsService;
+import com.streamflow.core.service.NotificationWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BurstCoalescerTest {
+
+    @Mock
+    private NotificationWriter writer;
+
+    @Mock
+    private DlqService dlqService;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BurstCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        NotificationProperties properties = new NotificationProperties();
+        properties.getCoalescing().setEnabled(true);
+        properties.getCoalescing().setWindow(Duration.ofMillis(200));
+        properties.getCoalescing().setMaxItems(3);
+        properties.getCoalescing().setEmitRetryBackoffMs(10);
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new BurstCoalescer(properties, writer, dlqService, kafkaTemplate,
+                new MetricsService(meterRegistry, properties), new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        coalescer.shutdown();
+    }
+
+    @Test
+    void firstNotificationPassesThroughAndTheRestBecomeOneDigest() {
+        // GIVEN / WHEN: A burst of 3 for the same user and channel
+        assertFalse(coalescer.offer(request("user-1", "EMAIL", "INFO", "first")));
+        assertTrue(coalescer.offer(request("user-1", "EMAIL", "WARN", "second")));
+        assertTrue(coalescer.offer(request("user-1", "EMAIL", "INFO", "third")));
+
+        // THEN: The two buffered ones are written as one digest when the window expires
+        ArgumentCaptor<NotificationLog> digest = ArgumentCaptor.forClass(NotificationLog.class);
+        verify(writer, timeout(2000)).write(digest.capture(), anyString());
+        assertEquals(2, digest.getValue().getItemCount());
+        assertEquals("WARN", digest.getValue().getType());
+        assertEquals("second", digest.getValue().getItems().get(0).getMessage());
+        assertEquals("third", digest.getValue().getItems().get(1).getMessage());
+        assertEquals("user-1", digest.getValue().getUserId());
+    }
+
+    @Test
+    void bufferedNotificationsCountAsProcessedOnlyOnceTheirDigestIsWritten() throws InterruptedException {
+        // GIVEN: Two notifications buffered behind a pass-through one
+        assertFalse(coalescer.offer(request("user-1", "EMAIL", "INFO", "first")));
+        assertTrue(coalescer.offer(request("user-1", "EMAIL", "INFO", "second")));
+        assertTrue(coalescer.offer(request("user-1", "EMAIL", "INFO", "third")));
+
+        // THEN: Not processed while they only sit in the window
+        assertEquals(0.0, counter("notifications.processed.total"));
+        assertEquals(0.0, counter("notifications.digests.total"));
+        assertEquals(2.0, counter("notifications.coalesced.total"));
+
+        // WHEN / THEN: Both count once the digest is persisted
+        verify(writer, timeout(2000)).write(any(), anyString());
+        long deadline = System.currentTimeMillis() + 2000;
+        while (counter("notifications.processed.total") < 2.0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2.0, counter("notifications.processed.total"));
+        assertEquals(1.0, counter("notifications.digests.total"));
+        assertEquals(2.0, counter("notifications.digests.items.total"));
+    }
+
+    @Test
+    void keysAreIndependentAndSingleLeftoversAreWrittenAsPlainNotifications() {
+        // GIVEN: One burst on EMAIL and a single first message on SMS
+        assertFalse(coalescer.offer(request("user-1", "EMAIL", "INFO", "a")));
+        assertFalse(coalescer.offer(request("user-1", "SMS", "INFO", "b")));
+        assertTrue(coalescer.offer(request("user-1", "EMAIL", "INFO", "c")));
+
+        // THEN: The lone buffered EMAIL item is written without digest fields
+        ArgumentCaptor<NotificationLog> written = ArgumentCaptor.forClass(NotificationLog.class);
+        verify(writer, timeout(2000)).write(written.capture(), anyString());
+        assertEquals("c", written.getValue().getMessage());
+        assertNull(written.getValue().getItems());
+    }
+
+    @Test
+    void fullDigestIsWrittenBeforeTheWindowEnds() {
+        // GIVEN: A window that opened with a pass-through notification
+        assertFalse(coalescer.offer(request("user-2", "PUSH", "INFO", "open")));
+
+        // WHEN: max-items notifications are buffered
+        for (int i = 0; i < 3; i++) {
+            assertTrue(coalescer.offer(request("user-2", "PUSH", "INFO", "item " + i)));
+        }
+
+        // THEN: Handed to the emit pool right away, well before the 200ms window expires
+        ArgumentCaptor<NotificationLog> digest = ArgumentCaptor.forClass(NotificationLog.class);
+        verify(writer, timeout(100)).write(digest.capture(), anyString());
+        assertEquals(3, digest.getValue().getItemCount());
+    }
+
+    @Test
+    void failedDigestIsRetriedThenEveryItemGoesToTheDlq() {
+        // GIVEN: A store that keeps failing
+        when(writer.write(any(), anyString())).thenThrow(new IllegalStateException("mongo down"));
+        ProducerRecord<String, String> dlqRecord = new ProducerRecord<>("notifications-dlq", "user-3", "{}");
+        when(dlqService.toDlqRecord(eq("coalescing"), eq("user-3"), anyString(), anyString(), anyString(), anyInt()))
+                .thenReturn(dlqRecord);
+        when(kafkaTemplate.send(dlqRecord)).thenReturn(CompletableFuture.completedFuture(null));
+
+        // WHEN: A digest of two items is emitted
+        assertFalse(coalescer.offer(request("user-3", "EMAIL", "INFO", "open")));
+        assertTrue(coalescer.offer(request("user-3", "EMAIL", "INFO", "x")));
+        assertTrue(coalescer.offer(request("user-3", "EMAIL", "INFO", "y")));
+
+        // THEN: The write is attempted emit-max-attempts times, then both items are dead-lettered
+        verify(kafkaTemplate, timeout(2000).times(2)).send(dlqRecord);
+        verify(writer, times(3)).write(any(), anyString());
+        assertEquals(0.0, counter("notifications.processed.total"));
+    }
+
+    @Test
+    void notificationsWithoutUserAreNeverCoalesced() {
+        assertFalse(coalescer.offer(request(null, "EMAIL", "INFO", "x")));
+        assertFalse(coalescer.offer(request(null, "EMAIL", "INFO", "y")));
+        verify(writer, never()).write(any(), anyString());
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    private static NotificationRequest request(String userId, String channel, String type, String message) {
+        NotificationRequest request = new NotificationRequest();
+        request.setUserId(userId);
+        request.setChannel(channel);
+        request.setType(type);
+        request.setMessage(message);
+        return request;
+    }
+}
@@ -0,0 +1,42 @@
+package com.streamflow.core.config;
+
+import com.streamflow.core.dto.NotificationRequest;
+import com.streamflow.core.model.DigestItem;
+import com.streamflow.core.model.ScheduledNotification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamflowRuntimeHintsTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new StreamflowRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void scheduledRequestsCanBeReadFromKafkaAndMongo() {
+        // The Kafka payload's sendAt, bound by Jackson
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(NotificationRequest.class, "getSendAt").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(NotificationRequest.class, "setSendAt").test(hints));
+
+        // The stored schedule entry, mapped field by field by MongoTemplate
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ScheduledNotification.class)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onField(ScheduledNotification.class, "leaseUntil").test(hints));
+    }
+
+    @Test
+    void digestItemsCanBeMapped() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(DigestItem.class)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(DigestItem.class, "getTimestamp").test(hints));
+    }
+}
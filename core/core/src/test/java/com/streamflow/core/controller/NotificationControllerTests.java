@@ -0,0 +1,250 @@
+package com.streamflow.core.controller;
+
+import com.streamflow.core.config.NotificationProperties;
+import com.streamflow.core.config.SecurityConfig;
+import com.streamflow.core.dto.NotificationStatsResponse;
+import com.streamflow.core.exception.ResourceNotFoundException;
+import com.streamflow.core.model.DigestItem;
+import com.streamflow.core.model.NotificationLog;
+import com.streamflow.core.security.TenantRegistry;
+import com.streamflow.core.service.MetricsService;
+import com.streamflow.core.service.NotificationSearchService;
+import com.streamflow.core.service.NotificationService;
+import com.streamflow.core.service.RecentFeedService;
+import com.streamflow.core.service.ResponseCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Web layer with the real API key filter and security rules; the services are replaced by a
+ * fake store that, like the real queries, only answers for the tenant it is asked about.
+ */
+@WebMvcTest(controllers = NotificationController.class, properties = {
+        "notification.security.api-key=",
+        "notification.security.tenants[0].id=tenant-a",
+        "notification.security.tenants[0].api-keys=key-a",
+        "notification.security.tenants[1].id=tenant-b",
+        "notification.security.tenants[1].api-keys=key-b"
+})
+@Import({SecurityConfig.class, TenantRegistry.class, NotificationProperties.class, ResponseCacheService.class})
+class NotificationControllerTests {
+
+    private static final String API_KEY = "X-API-Key";
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private NotificationService service;
+
+    @MockitoBean
+    private NotificationSearchService searchService;
+
+    @MockitoBean
+    private MetricsService metricsService;
+
+    @MockitoBean
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ResponseCacheService responseCache;
+
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+
+    private final NotificationLog tenantBLog = NotificationLog.builder()
+            .message("tenant-b secret")
+            .type("INFO")
+            .channel("EMAIL")
+            .userId("user-1")
+            .tenant("tenant-b")
+            .timestamp(LocalDateTime.of(2026, 1, 1, 0, 0))
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        tenantBLog.setId("b-1");
+        when(service.getNotificationHistory(anyString(), any(), any(Pageable.class)))
+                .thenAnswer(inv -> new PageImpl<>(recordsOf(inv.getArgument(0)), inv.getArgument(2), recordsOf(inv.getArgument(0)).size()));
+        when(service.getNotificationsByUser(anyString(), eq("user-1")))
+                .thenAnswer(inv -> recordsOf(inv.getArgument(0)));
+        when(service.getNotificationsByType(anyString(), eq("INFO"), isNull()))
+                .thenAnswer(inv -> recordsOf(inv.getArgument(0)));
+        when(service.getNotificationItems(anyString(), eq("b-1"), isNull())).thenAnswer(inv -> {
+            if (!"tenant-b".equals(inv.getArgument(0))) {
+                throw new ResourceNotFoundException("Notification not found: b-1");
+            }
+            return List.of(new DigestItem(tenantBLog.getMessage(), tenantBLog.getType(), tenantBLog.getTimestamp()));
+        });
+        when(searchService.search(anyString(), eq("secret"), any(), any(), any(), any(), any(), anyBoolean(), any(Pageable.class)))
+                .thenAnswer(inv -> new PageImpl<>(recordsOf(inv.getArgument(0)), inv.getArgument(8), recordsOf(inv.getArgument(0)).size()));
+        when(service.getRecentNotifications(anyString(), any(), any())).thenAnswer(inv -> new RecentFeedService.Slice(
+                recordsOf(inv.getArgument(0)).stream().map(NotificationLog::getMessage).toList(), Long.MAX_VALUE));
+        when(service.getNotificationStats(anyString())).thenAnswer(inv -> NotificationStatsResponse.builder()
+                .totalNotifications(recordsOf(inv.getArgument(0)).size())
+                .build());
+    }
+
+    // ========== TENANT ISOLATION ==========
+
+    @Test
+    void tenantBSeesItsOwnRecords() throws Exception {
+        mockMvc.perform(get("/api/v1/notify/filter/user/user-1").header(API_KEY, "key-b"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].message").value("tenant-b secret"));
+        mockMvc.perform(get("/api/v1/notify/b-1/items").header(API_KEY, "key-b"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void tenantACannotSeeTenantBRecords() throws Exception {
+        mockMvc.perform(get("/api/v1/notify/history").header(API_KEY, "key-a"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+        mockMvc.perform(get("/api/v1/notify/filter/user/user-1").header(API_KEY, "key-a"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/v1/notify/filter/type/INFO").header(API_KEY, "key-a"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/v1/notify/b-1/items").header(API_KEY, "key-a"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/notify/search").param("q", "secret").header(API_KEY, "key-a"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+        mockMvc.perform(get("/api/v1/notify/recent").header(API_KEY, "key-a"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/v1/notify/stats").header(API_KEY, "key-a"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalNotifications").value(0));
+    }
+
+    // ========== CONDITIONAL GET ==========
+
+    @Test
+    void matchingValidatorIsAnswered304WithoutReloading() throws Exception {
+        freshVersion();
+
+        for (String path : List.of("/api/v1/notify/recent", "/api/v1/notify/stats")) {
+            String etag = mockMvc.perform(get(path).header(API_KEY, "key-b"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+            mockMvc.perform(get(path).header(API_KEY, "key-b").header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag));
+        }
+        verify(service, times(1)).getRecentNotifications(eq("tenant-b"), isNull(), isNull());
+        verify(service, times(1)).getNotificationStats("tenant-b");
+    }
+
+    @Test
+    void consumedNotificationBumpsTheVersionAndInvalidatesValidators() throws Exception {
+        long version = freshVersion();
+        String recentEtag = etagOf("/api/v1/notify/recent");
+        String statsEtag = etagOf("/api/v1/notify/stats");
+
+        // WHEN: A consumer writes a notification and the version refresh publishes it
+        when(valueOperations.increment("feed_version")).thenReturn(version + 1);
+        when(valueOperations.get("feed_version")).thenReturn(String.valueOf(version + 1));
+        responseCache.markChanged();
+        responseCache.refreshVersion();
+
+        // THEN: Old validators no longer match, and the bodies are rebuilt
+        mockMvc.perform(get("/api/v1/notify/recent").header(API_KEY, "key-b").header(HttpHeaders.IF_NONE_MATCH, recentEtag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(recentEtag)));
+        mockMvc.perform(get("/api/v1/notify/stats").header(API_KEY, "key-b").header(HttpHeaders.IF_NONE_MATCH, statsEtag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(statsEtag)));
+        verify(service, times(2)).getRecentNotifications(eq("tenant-b"), isNull(), isNull());
+        verify(service, times(2)).getNotificationStats("tenant-b");
+    }
+
+    @Test
+    void recentValidatorExpiresWhenTheOldestEntryLeavesTheWindow() throws Exception {
+        freshVersion();
+        long agesOutAt = System.currentTimeMillis() + 300;
+        when(service.getRecentNotifications(eq("tenant-b"), any(), any()))
+                .thenReturn(new RecentFeedService.Slice(List.of("old"), agesOutAt))
+                .thenReturn(new RecentFeedService.Slice(List.of(), Long.MAX_VALUE));
+        String etag = etagOf("/api/v1/notify/recent");
+
+        // Still valid: no write and nothing aged out
+        mockMvc.perform(get("/api/v1/notify/recent").header(API_KEY, "key-b").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // Past the age-out time the same version yields a new body and validator
+        Thread.sleep(Math.max(0, agesOutAt - System.currentTimeMillis() + 50));
+        mockMvc.perform(get("/api/v1/notify/recent").header(API_KEY, "key-b").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void unknownVersionServesBodiesWithoutValidators() throws Exception {
+        // Redis unreachable (the template mock has no stubs), so the cache is bypassed
+        responseCache.refreshVersion();
+        mockMvc.perform(get("/api/v1/notify/stats").header(API_KEY, "key-b"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    // ========== AUTHENTICATION ==========
+
+    @Test
+    void readsWithoutAKeyAreRejected() throws Exception {
+        mockMvc.perform(get("/api/v1/notify/history")).andExpect(status().isForbidden());
+    }
+
+    // The context, and so the body cache, is shared by all tests: each test starts at a version no other test used
+    private long freshVersion() {
+        long version = VERSIONS.addAndGet(10);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("feed_version")).thenReturn(String.valueOf(version));
+        responseCache.refreshVersion();
+        return version;
+    }
+
+    private String etagOf(String path) throws Exception {
+        return mockMvc.perform(get(path).header(API_KEY, "key-b"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private List<NotificationLog> recordsOf(String tenant) {
+        return tenant.equals(tenantBLog.getTenant()) ? List.of(tenantBLog) : List.of();
+    }
+}
@@ -0,0 +1,115 @@
+package com.streamflow.core.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensOnceFailureRateReachesThresholdAfterMinimumCalls() {
+        // GIVEN: 50% threshold over a window of 10, judged after 4 calls
+        CircuitBreaker breaker = new CircuitBreaker(0.5, 10, 4, 60_000);
+
+        // WHEN: 3 failures among the first 3 calls, below the minimum
+        for (int i = 0; i < 3; i++) {
+            fail(breaker);
+        }
+
+        // THEN: Still closed until the minimum number of calls is recorded
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        fail(breaker);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    void oldOutcomesSlideOutOfTheWindow() {
+        // GIVEN: A window of 4 with two early failures
+        CircuitBreaker breaker = new CircuitBreaker(0.75, 4, 4, 60_000);
+        fail(breaker);
+        fail(breaker);
+
+        // WHEN: Successes push the failures out, then two new failures arrive
+        for (int i = 0; i < 4; i++) {
+            succeed(breaker);
+        }
+        fail(breaker);
+        fail(breaker);
+
+        // THEN: 2 of the last 4 failed, below 75%
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void halfOpenAllowsOneTrialAndClosesOnSuccess() throws InterruptedException {
+        // GIVEN: A breaker that opened and whose open period has passed
+        CircuitBreaker breaker = new CircuitBreaker(0.5, 2, 2, 20);
+        fail(breaker);
+        fail(breaker);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Thread.sleep(40);
+
+        // WHEN / THEN: Exactly one trial call is let through
+        long trial = breaker.tryAcquire();
+        assertNotEquals(CircuitBreaker.REJECTED, trial);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+
+        // A successful trial closes it with a fresh window
+        breaker.onSuccess(trial);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        fail(breaker);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void failedTrialReopens() throws InterruptedException {
+        // GIVEN: A half-open breaker
+        CircuitBreaker breaker = new CircuitBreaker(0.5, 2, 2, 20);
+        fail(breaker);
+        fail(breaker);
+        Thread.sleep(40);
+        long trial = breaker.tryAcquire();
+        assertNotEquals(CircuitBreaker.REJECTED, trial);
+
+        // WHEN: The trial fails
+        breaker.onFailure(trial);
+
+        // THEN: Open again, rejecting calls
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.REJECTED, breaker.tryAcquire());
+    }
+
+    @Test
+    void lateOutcomesFromAnEarlierStateAreIgnored() throws InterruptedException {
+        // GIVEN: A slow call admitted while closed, then the breaker opens and goes half-open
+        CircuitBreaker breaker = new CircuitBreaker(0.5, 2, 2, 20);
+        long slowCall = breaker.tryAcquire();
+        fail(breaker);
+        fail(breaker);
+        Thread.sleep(40);
+        long trial = breaker.tryAcquire();
+
+        // WHEN: The slow call succeeds before the trial finishes
+        breaker.onSuccess(slowCall);
+
+        // THEN: It is not taken for the trial result; only the trial decides
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onFailure(trial);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        // And a late failure can't count against the window of a later closed state
+        breaker.onFailure(slowCall);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private static void succeed(CircuitBreaker breaker) {
+        breaker.onSuccess(breaker.tryAcquire());
+    }
+
+    private static void fail(CircuitBreaker breaker) {
+        breaker.onFailure(breaker.tryAcquire());
+    }
+}
@@ -0,0 +1,266 @@
+package com.streamflow.core.delivery;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamflow.core.config.NotificationProperties;
+import com.streamflow.core.model.NotificationLog;
+import com.streamflow.core.service.DlqService;
+import com.streamflow.core.service.MetricsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private DlqService dlqService;
+
+    private NotificationProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private DeliveryService deliveryService;
+    private final CountDownLatch releaseSms = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        properties = new NotificationProperties();
+        properties.getDelivery().setEnabled(true);
+        properties.getDelivery().setMaxAttempts(2);
+        properties.getDelivery().setRetryBackoffMs(1000);
+        properties.getDelivery().setShutdownTimeoutMs(1000);
+        // The tests drive sweep() themselves
+        properties.getDelivery().setRetrySweepIntervalMs(TimeUnit.HOURS.toMillis(1));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        releaseSms.countDown();
+        if (deliveryService != null) {
+            deliveryService.shutdown();
+        }
+    }
+
+    // ========== STARTUP ==========
+
+    @Test
+    void channelsWithoutASenderFailStartupUnlessStubsAreAllowed() {
+        // GIVEN: EMAIL is configured but nothing sends it
+        properties.getDelivery().getChannels().put("EMAIL", new NotificationProperties.DeliveryChannel());
+
+        // WHEN / THEN: A stub would mark real notifications DELIVERED, so startup fails
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> start(List.of()));
+        assertTrue(error.getMessage().contains("EMAIL"));
+
+        // Allowed explicitly for local runs
+        properties.getDelivery().setStubSendersEnabled(true);
+        deliveryService = start(List.of());
+    }
+
+    // ========== BULKHEADS ==========
+
+    @Test
+    void slowSmsProviderDoesNotStarveEmail() throws InterruptedException {
+        // GIVEN: One SMS worker with room for one queued delivery, stuck in its provider
+        NotificationProperties.DeliveryChannel sms = new NotificationProperties.DeliveryChannel();
+        sms.setConcurrency(1);
+        sms.setQueueCapacity(1);
+        properties.getDelivery().getChannels().put("SMS", sms);
+        properties.getDelivery().getChannels().put("EMAIL", new NotificationProperties.DeliveryChannel());
+
+        CountDownLatch smsStarted = new CountDownLatch(1);
+        List<String> emailed = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch emailDone = new CountDownLatch(10);
+        deliveryService = start(List.of(
+                sender("SMS", batch -> {
+                    smsStarted.countDown();
+                    releaseSms.await();
+                }),
+                sender("EMAIL", batch -> {
+                    batch.forEach(delivery -> emailed.add(delivery.getNotificationId()));
+                    batch.forEach(delivery -> emailDone.countDown());
+                })));
+
+        deliveryService.dispatch(notification("sms-1", "SMS", null));
+        assertTrue(smsStarted.await(2, TimeUnit.SECONDS));
+        deliveryService.dispatch(notification("sms-2", "SMS", null));
+
+        // WHEN: SMS is full and EMAIL traffic arrives
+        deliveryService.dispatch(notification("sms-3", "SMS", null));
+        for (int i = 0; i < 10; i++) {
+            deliveryService.dispatch(notification("email-" + i, "EMAIL", null));
+        }
+
+        // THEN: SMS rejects at once, stored for the retry sweep, while every EMAIL goes out
+        assertEquals(1.0, deliveries("SMS", "rejected"));
+        assertTrue(statuses().contains(DeliveryStatus.REJECTED.name()));
+        assertTrue(emailDone.await(2, TimeUnit.SECONDS));
+        assertEquals(10, emailed.size());
+        assertEquals(0.0, deliveries("SMS", "delivered"));
+    }
+
+    // ========== RETRY AND DEAD LETTER ==========
+
+    @Test
+    void failedAttemptIsScheduledForRetryWithBackoff() {
+        // GIVEN: A provider that always fails
+        deliveryService = start(List.of(sender("EMAIL", batch -> {
+            throw new IllegalStateException("provider down");
+        })));
+
+        // WHEN: The first attempt fails
+        LocalDateTime before = LocalDateTime.now();
+        deliveryService.dispatch(notification("n-1", "EMAIL", null));
+
+        // THEN: Stored as FAILED, attempt 1, due again after the base backoff
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, timeout(2000)).updateMulti(any(Query.class), update.capture(), eq(NotificationLog.class));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals(DeliveryStatus.FAILED.name(), set.get("deliveryStatus"));
+        assertEquals(1, set.get("deliveryAttempts"));
+        assertFalse(((LocalDateTime) set.get("nextDeliveryAt")).isBefore(before.plus(1000, ChronoUnit.MILLIS)));
+    }
+
+    @Test
+    void sweepRetriesDueEntriesAndDeadLettersExhaustedOnes() {
+        // GIVEN: One entry with attempts left, one exhausted, and one another node claims first
+        List<Integer> attempts = Collections.synchronizedList(new ArrayList<>());
+        deliveryService = start(List.of(sender("EMAIL", batch -> batch.forEach(delivery -> attempts.add(delivery.getAttempt())))));
+        NotificationLog retry = notification("retry", "EMAIL", 1);
+        NotificationLog exhausted = notification("exhausted", "EMAIL", 2);
+        NotificationLog taken = notification("taken", "EMAIL", 1);
+        when(mongoTemplate.find(any(Query.class), eq(NotificationLog.class))).thenReturn(List.of(retry, exhausted, taken));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(NotificationLog.class)))
+                .thenReturn(retry, exhausted, null);
+        ProducerRecord<String, String> dlqRecord = new ProducerRecord<>("notifications-dlq", "user-1", "{}");
+        when(dlqService.toDlqRecord(eq("delivery:EMAIL"), eq("user-1"), anyString(), eq("DeliveryAttemptsExhausted"), anyString(), eq(2)))
+                .thenReturn(dlqRecord);
+        when(kafkaTemplate.send(dlqRecord)).thenReturn(CompletableFuture.completedFuture(null));
+
+        // WHEN
+        deliveryService.sweep();
+
+        // THEN: The exhausted entry is in the DLQ and marked, the other is delivered on its second attempt
+        verify(kafkaTemplate).send(dlqRecord);
+        assertEquals(1.0, deliveries("EMAIL", "dead_lettered"));
+        assertEquals(1.0, deliveries("EMAIL", "retried"));
+        verify(mongoTemplate, timeout(2000).times(2)).updateMulti(any(Query.class), any(Update.class), eq(NotificationLog.class));
+        assertEquals(List.of(DeliveryStatus.DEAD_LETTERED.name(), DeliveryStatus.DELIVERED.name()),
+                statuses().stream().sorted().toList());
+        assertEquals(List.of(2), attempts);
+    }
+
+    @Test
+    void exhaustedEntryStaysLeasedWhenTheDlqIsUnreachable() {
+        // GIVEN: An exhausted entry and a DLQ send that fails
+        deliveryService = start(List.of(sender("EMAIL", batch -> { })));
+        NotificationLog exhausted = notification("exhausted", "EMAIL", 2);
+        when(mongoTemplate.find(any(Query.class), eq(NotificationLog.class))).thenReturn(List.of(exhausted));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(NotificationLog.class)))
+                .thenReturn(exhausted);
+        ProducerRecord<String, String> dlqRecord = new ProducerRecord<>("notifications-dlq", "user-1", "{}");
+        when(dlqService.toDlqRecord(anyString(), anyString(), anyString(), anyString(), anyString(), eq(2))).thenReturn(dlqRecord);
+        when(kafkaTemplate.send(dlqRecord)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("kafka down")));
+
+        // WHEN
+        deliveryService.sweep();
+
+        // THEN: Not marked; the lease from the claim brings it back to a later sweep
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(NotificationLog.class));
+        assertEquals(0.0, deliveries("EMAIL", "dead_lettered"));
+    }
+
+    private DeliveryService start(List<ChannelSender> senders) {
+        return new DeliveryService(properties, senders, mongoTemplate, kafkaTemplate, dlqService,
+                new ObjectMapper().findAndRegisterModules(), new MetricsService(meterRegistry, properties));
+    }
+
+    private double deliveries(String channel, String outcome) {
+        Counter counter = meterRegistry.find("notifications.delivery.total")
+                .tag("channel", channel).tag("outcome", outcome).counter();
+        return counter != null ? counter.count() : 0.0;
+    }
+
+    private static NotificationLog notification(String id, String channel, Integer attempts) {
+        NotificationLog notification = NotificationLog.builder()
+                .message("hello")
+                .type("INFO")
+                .channel(channel)
+                .userId("user-1")
+                .tenant("acme")
+                .timestamp(LocalDateTime.now())
+                .build();
+        notification.setId(id);
+        notification.setDeliveryAttempts(attempts);
+        notification.setNextDeliveryAt(LocalDateTime.now());
+        return notification;
+    }
+
+    // deliveryStatus of every update written so far
+    private List<String> statuses() {
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, atLeastOnce()).updateMulti(any(Query.class), updates.capture(), eq(NotificationLog.class));
+        return updates.getAllValues().stream()
+                .map(update -> ((Document) update.getUpdateObject().get("$set")).getString("deliveryStatus"))
+                .toList();
+    }
+
+    private static ChannelSender sender(String channel, Send send) {
+        return new ChannelSender() {
+            @Override
+            public String channel() {
+                return channel;
+            }
+
+            @Override
+            public void send(List<Delivery> batch) throws Exception {
+                send.send(batch);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface Send {
+        void send(List<Delivery> batch) throws Exception;
+    }
+}
@@ -0,0 +1,96 @@
+package com.streamflow.core.outbox;
+
+import com.streamflow.core.config.NotificationProperties;
+import com.streamflow.core.outbox.OutboxLog.OutboxEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboxLogTest {
+
+    @TempDir
+    Path directory;
+
+    private NotificationProperties properties(int segmentBytes) {
+        NotificationProperties properties = new NotificationProperties();
+        properties.getOutbox().setDirectory(directory.toString());
+        properties.getOutbox().setSegmentBytes(segmentBytes);
+        properties.getOutbox().setFsyncIntervalMs(1);
+        return properties;
+    }
+
+    @Test
+    void appendedRecordsSurviveRestartUntilCommitted() throws Exception {
+        // GIVEN: Small segments so 20 records force several rolls
+        OutboxLog outbox = new OutboxLog(properties(128));
+        for (int i = 0; i < 20; i++) {
+            outbox.append("{\"message\":\"payload-" + i + "\"}");
+        }
+        assertEquals(20, outbox.getPendingRecords());
+
+        // WHEN: The relay checkpoints the first 5 and the process restarts
+        List<OutboxEntry> first = outbox.readBatch(5);
+        outbox.commit(first.get(4).getNextPosition(), first.size());
+        outbox.close();
+
+        OutboxLog reopened = new OutboxLog(properties(128));
+
+        // THEN: Only the uncommitted records are replayed, in order
+        assertEquals(15, reopened.getPendingRecords());
+        List<OutboxEntry> remaining = reopened.readBatch(100);
+        assertEquals(15, remaining.size());
+        assertEquals("{\"message\":\"payload-5\"}", remaining.get(0).getPayload());
+        assertEquals("{\"message\":\"payload-19\"}", remaining.get(14).getPayload());
+        assertTrue(reopened.getOldestPendingAppendedAt() > 0);
+
+        reopened.commit(remaining.get(14).getNextPosition(), remaining.size());
+        assertEquals(0, reopened.getPendingRecords());
+        assertEquals(0, reopened.getOldestPendingAppendedAt());
+        reopened.close();
+    }
+
+    @Test
+    void tornRecordIsTruncatedOnRecoveryAndOverwritten() throws Exception {
+        // GIVEN: Three records, the last one damaged on disk as if only some of its pages were written
+        OutboxLog outbox = new OutboxLog(properties(4096));
+        outbox.append("{\"message\":\"first\"}");
+        long secondEnd = outbox.append("{\"message\":\"second\"}");
+        outbox.append("{\"message\":\"third\"}");
+        outbox.close();
+        corruptByte(secondEnd + 20); // inside the third record's payload
+
+        // WHEN
+        OutboxLog reopened = new OutboxLog(properties(4096));
+
+        // THEN: Only the intact records are replayed, and the next append takes the torn record's place
+        assertEquals(2, reopened.getPendingRecords());
+        reopened.append("{\"message\":\"fourth\"}");
+        List<String> payloads = reopened.readBatch(100).stream().map(OutboxEntry::getPayload).toList();
+        assertEquals(List.of("{\"message\":\"first\"}", "{\"message\":\"second\"}", "{\"message\":\"fourth\"}"), payloads);
+        reopened.close();
+    }
+
+    // Flips one byte of the only segment file at the given log position
+    private void corruptByte(long position) throws IOException {
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(1);
+            channel.read(value, position);
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) (value.get(0) ^ 0xFF)}), position);
+        }
+    }
+}
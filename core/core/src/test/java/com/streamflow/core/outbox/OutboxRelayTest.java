@@ -0,0 +1,149 @@
+package com.streamflow.core.outbox;
+
+import com.streamflow.core.config.NotificationProperties;
+import com.streamflow.core.service.MetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The relay's scheduled drain is pushed far out, so each test calls {@code drain()} itself.
+ */
+class OutboxRelayTest {
+
+    @TempDir
+    Path directory;
+
+    // Outlives relay shutdowns, so the restart test can check what each run sent
+    private final MockProducer<String, String> producer = new MockProducer<>(true, new StringSerializer(), new StringSerializer()) {
+        @Override
+        public void close(Duration timeout) {
+        }
+    };
+
+    // The relay derives its own factory with a short max.block.ms; keep handing out the mock producer
+    private final DefaultKafkaProducerFactory<String, String> producerFactory = new DefaultKafkaProducerFactory<>(Map.of()) {
+        @Override
+        public ProducerFactory<String, String> copyWithConfigurationOverride(Map<String, Object> overrides) {
+            return this;
+        }
+
+        @Override
+        protected MockProducer<String, String> createRawProducer(Map<String, Object> configs) {
+            return producer;
+        }
+    };
+
+    private NotificationProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxLog outboxLog;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties = new NotificationProperties();
+        properties.getOutbox().setDirectory(directory.toString());
+        properties.getOutbox().setFsyncIntervalMs(1);
+        properties.getOutbox().setRelayIntervalMs(60_000);
+        properties.getOutbox().setRelayMaxBackoffMs(50);
+        properties.getOutbox().setRelayBatchSize(2);
+
+        meterRegistry = new SimpleMeterRegistry();
+        outboxLog = new OutboxLog(properties);
+        relay = newRelay();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        relay.shutdown();
+        outboxLog.close();
+    }
+
+    @Test
+    void pendingRecordsAreRelayedInOrderAndCheckpointed() {
+        // GIVEN: More records than one batch holds
+        for (int i = 0; i < 5; i++) {
+            outboxLog.append("payload-" + i);
+        }
+
+        // WHEN
+        relay.drain();
+
+        // THEN: Full batches keep draining until the outbox is empty
+        assertEquals(List.of("payload-0", "payload-1", "payload-2", "payload-3", "payload-4"), sentPayloads());
+        assertEquals(properties.getKafka().getMainTopic(), producer.history().get(0).topic());
+        assertEquals(0, outboxLog.getPendingRecords());
+        assertEquals(5.0, meterRegistry.get("notifications.sent.total").counter().count());
+        assertEquals(0.0, meterRegistry.get("notifications.outbox.depth").gauge().value());
+    }
+
+    @Test
+    void failedBatchStaysInTheOutboxAndIsResentAfterTheBackoff() throws InterruptedException {
+        // GIVEN: A broker that rejects sends
+        outboxLog.append("payload-0");
+        producer.sendException = new TimeoutException("broker down");
+
+        // WHEN
+        relay.drain();
+
+        // THEN: Nothing is checkpointed
+        assertEquals(1, outboxLog.getPendingRecords());
+        assertEquals(1.0, meterRegistry.get("notifications.outbox.relay.failures.total").counter().count());
+        assertEquals(1.0, meterRegistry.get("notifications.outbox.depth").gauge().value());
+
+        // WHEN / THEN: The broker recovers; the relay waits out its backoff, then sends the batch
+        producer.sendException = null;
+        relay.drain();
+        assertEquals(List.of(), sentPayloads());
+        Thread.sleep(100);
+        relay.drain();
+        assertEquals(List.of("payload-0"), sentPayloads());
+        assertEquals(0, outboxLog.getPendingRecords());
+    }
+
+    @Test
+    void restartReplaysOnlyRecordsThatWereNotAcknowledged() throws Exception {
+        // GIVEN: Two records relayed, then two more appended before the process stops
+        outboxLog.append("payload-0");
+        outboxLog.append("payload-1");
+        relay.drain();
+        outboxLog.append("payload-2");
+        outboxLog.append("payload-3");
+        relay.shutdown();
+        outboxLog.close();
+        producer.clear();
+
+        // WHEN: A new log and relay start on the same directory
+        outboxLog = new OutboxLog(properties);
+        relay = newRelay();
+        assertEquals(2, outboxLog.getPendingRecords());
+        relay.drain();
+
+        // THEN: The acknowledged records are not sent again
+        assertEquals(List.of("payload-2", "payload-3"), sentPayloads());
+        assertEquals(0, outboxLog.getPendingRecords());
+    }
+
+    private OutboxRelay newRelay() {
+        return new OutboxRelay(outboxLog, producerFactory, properties, new MetricsService(meterRegistry, properties));
+    }
+
+    private List<String> sentPayloads() {
+        return producer.history().stream().map(ProducerRecord::value).toList();
+    }
+}
@@ -0,0 +1,267 @@
+package com.streamflow.core.repository;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ReadPreference;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.connection.ServerDescription;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.streamflow.core.config.MongoConfig;
+import com.streamflow.core.config.NotificationProperties;
+import com.streamflow.core.model.NotificationLog;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.testcontainers.containers.Container.ExecResult;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs against a three-member replica set, so the read template has real secondaries to pick from.
+ * All three mongod processes share one container; members are registered under
+ * {@code host.docker.internal} and their mapped ports, which both the members (through the host
+ * gateway) and the test client (through its resolver) can reach.
+ */
+@Testcontainers
+class NotificationReadRepositoryTests {
+
+    private static final int[] PORTS = {27017, 27018, 27019};
+    private static final String MEMBER_HOST = "host.docker.internal";
+
+    @Container
+    static GenericContainer<?> replicaSet = new GenericContainer<>("mongo:6.0")
+            .withExposedPorts(27017, 27018, 27019)
+            .withExtraHost(MEMBER_HOST, "host-gateway")
+            .withCommand("bash", "-c", "for i in 0 1 2; do mkdir -p /data/rs$i"
+                    + " && mongod --replSet rs0 --bind_ip_all --port $((27017 + i)) --dbpath /data/rs$i --fork --logpath /data/rs$i.log"
+                    + " || exit 1; done; echo 'members started'; tail -f /dev/null")
+            .waitingFor(Wait.forLogMessage(".*members started.*\\n", 1));
+
+    private static final String TENANT = "acme";
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    // Commands sent by the client, copied because the driver releases the originals after the callback
+    private static final List<SentCommand> commands = new CopyOnWriteArrayList<>();
+
+    private static MongoClient client;
+    private static MongoTemplate readTemplate;
+    private static NotificationReadRepository readRepository;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        initiateReplicaSet();
+        client = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(
+                        "mongodb://" + MEMBER_HOST + ":" + replicaSet.getMappedPort(PORTS[0]) + "/?replicaSet=rs0"))
+                .inetAddressResolver(host -> List.of(InetAddress.getAllByName(
+                        MEMBER_HOST.equals(host) ? replicaSet.getHost() : host)))
+                .addCommandListener(new CommandListener() {
+                    @Override
+                    public void commandStarted(CommandStartedEvent event) {
+                        commands.add(new SentCommand(event.getCommandName(),
+                                event.getConnectionDescription().getServerAddress(), event.getCommand().clone()));
+                    }
+                })
+                .build());
+        awaitSecondaries(2);
+
+        SimpleMongoClientDatabaseFactory factory = new SimpleMongoClientDatabaseFactory(client, "read-split");
+        MongoConfig config = new MongoConfig();
+        MongoTemplate writeTemplate = config.mongoTemplate(factory, null);
+        readTemplate = config.readMongoTemplate(factory, writeTemplate.getConverter(), new NotificationProperties());
+        readRepository = new NotificationReadRepository(readTemplate);
+
+        IndexOperations indexOps = writeTemplate.indexOps(NotificationLog.class);
+        new MongoPersistentEntityIndexResolver(writeTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(NotificationLog.class)
+                .forEach(indexOps::ensureIndex);
+
+        // Acknowledged by every member, so the secondaries already hold the seed data
+        writeTemplate.setWriteConcern(WriteConcern.W3);
+        for (int i = 0; i < 20; i++) {
+            writeTemplate.insert(NotificationLog.builder()
+                    .message("message " + i)
+                    .type(i % 4 == 0 ? "ERROR" : "INFO")
+                    .channel(i % 2 == 0 ? "EMAIL" : "SMS")
+                    .userId("user-" + (i % 2))
+                    .tenant(TENANT)
+                    .timestamp(BASE.plusMinutes(i))
+                    .build());
+        }
+        // Same users in another tenant, which no query above may return
+        writeTemplate.insert(NotificationLog.builder()
+                .message("other tenant")
+                .type("ERROR")
+                .channel("EMAIL")
+                .userId("user-0")
+                .tenant("globex")
+                .timestamp(BASE.plusMinutes(30))
+                .build());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        client.close();
+    }
+
+    @BeforeEach
+    void clearCommands() {
+        commands.clear();
+    }
+
+    @Test
+    void readTemplatePrefersSecondariesWithBoundedStaleness() {
+        ReadPreference preference = readTemplate.getReadPreference();
+
+        assertEquals(ReadPreference.secondaryPreferred(90, TimeUnit.SECONDS), preference);
+        assertEquals("secondaryPreferred", preference.getName());
+    }
+
+    @Test
+    void userQueriesReturnNewestFirstFromTheReadTemplate() {
+        List<NotificationLog> logs = readRepository.findByUser(TENANT, "user-1");
+
+        assertEquals(10, logs.size());
+        assertEquals(BASE.plusMinutes(19), logs.get(0).getTimestamp());
+        assertTrue(logs.stream().allMatch(log -> "user-1".equals(log.getUserId())));
+    }
+
+    @Test
+    void filtersNarrowByUserWhenGiven() {
+        assertEquals(5, readRepository.findByType(TENANT, "ERROR", null).size());
+        assertEquals(5, readRepository.findByType(TENANT, "ERROR", "user-0").size());
+        assertEquals(0, readRepository.findByChannel(TENANT, "EMAIL", "user-1").size());
+        assertEquals(4, readRepository.findByTimeRange(TENANT, BASE, BASE.plusMinutes(10), "user-0").size());
+
+        Page<NotificationLog> page = readRepository.findHistory(TENANT, "user-0", PageRequest.of(0, 3));
+        assertEquals(10, page.getTotalElements());
+        assertEquals(BASE.plusMinutes(18), page.getContent().get(0).getTimestamp());
+    }
+
+    @Test
+    void everyRepositoryReadIsServedByASecondary() {
+        // WHEN: Every kind of read the repository issues, including the history count
+        readRepository.findByUser(TENANT, "user-0");
+        readRepository.findByType(TENANT, "ERROR", null);
+        readRepository.findByChannel(TENANT, "SMS", "user-1");
+        readRepository.findByTimeRange(TENANT, BASE, BASE.plusMinutes(10), null);
+        readRepository.findHistory(TENANT, null, PageRequest.of(0, 3));
+
+        // THEN: None of them reached the primary
+        Set<ServerAddress> secondaries = client.getClusterDescription().getServerDescriptions().stream()
+                .filter(ServerDescription::isSecondary)
+                .map(ServerDescription::getAddress)
+                .collect(Collectors.toSet());
+        List<SentCommand> reads = commands.stream()
+                .filter(command -> Set.of("find", "aggregate", "count").contains(command.name))
+                .toList();
+        assertEquals(6, reads.size(), reads::toString);
+        assertTrue(reads.stream().allMatch(command -> secondaries.contains(command.server)), reads::toString);
+    }
+
+    @Test
+    void userQueriesUseTheShardKeyIndex() {
+        // GIVEN: The find command the repository sends for a per-user query
+        readRepository.findByUser(TENANT, "user-0");
+        BsonDocument find = commands.stream()
+                .filter(command -> "find".equals(command.name))
+                .findFirst()
+                .orElseThrow()
+                .command;
+
+        // WHEN: That same command is explained, without the session and routing fields the driver added
+        BsonDocument explained = new BsonDocument();
+        find.forEach((field, value) -> {
+            if (!field.startsWith("$") && !field.equals("lsid") && !field.equals("txnNumber")) {
+                explained.put(field, value);
+            }
+        });
+        Document plan = readTemplate.getDb().runCommand(new Document("explain", explained).append("verbosity", "queryPlanner"));
+
+        // THEN
+        Document winningPlan = plan.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        assertTrue(winningPlan.toJson().contains("user_timestamp_idx"), plan.toJson());
+    }
+
+    @Test
+    void rejectsMaxStalenessBelowTheServerMinimum() {
+        NotificationProperties properties = new NotificationProperties();
+        properties.getMongo().setMaxStalenessSeconds(30);
+
+        assertThrows(IllegalStateException.class,
+                () -> new MongoConfig().readMongoTemplate(new SimpleMongoClientDatabaseFactory(client, "read-split"), null, properties));
+    }
+
+    private static void initiateReplicaSet() throws Exception {
+        StringBuilder members = new StringBuilder();
+        for (int i = 0; i < PORTS.length; i++) {
+            members.append(i > 0 ? ", " : "")
+                    .append("{_id: ").append(i)
+                    .append(", host: '").append(MEMBER_HOST).append(':').append(replicaSet.getMappedPort(PORTS[i])).append('\'')
+                    // The first member wins the election, so the test knows who starts as primary
+                    .append(i == 0 ? ", priority: 2}" : "}");
+        }
+        ExecResult result = replicaSet.execInContainer("mongosh", "--port", String.valueOf(PORTS[0]), "--quiet",
+                "--eval", "rs.initiate({_id: 'rs0', members: [" + members + "]}).ok");
+        assertEquals(0, result.getExitCode(), result.getStderr());
+    }
+
+    private static void awaitSecondaries(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (true) {
+            List<ServerDescription> servers = client.getClusterDescription().getServerDescriptions();
+            long secondaries = servers.stream().filter(ServerDescription::isSecondary).count();
+            boolean hasPrimary = servers.stream().anyMatch(ServerDescription::isPrimary);
+            if (hasPrimary && secondaries == expected) {
+                return;
+            }
+            assertFalse(System.currentTimeMillis() > deadline, "replica set not ready: " + servers);
+            Thread.sleep(500);
+        }
+    }
+
+    private static final class SentCommand {
+        private final String name;
+        private final ServerAddress server;
+        private final BsonDocument command;
+
+        private SentCommand(String name, ServerAddress server, BsonDocument command) {
+            this.name = name;
+            this.server = server;
+            this.command = command;
+        }
+
+        @Override
+        public String toString() {
+            return name + "@" + server;
+        }
+    }
+}
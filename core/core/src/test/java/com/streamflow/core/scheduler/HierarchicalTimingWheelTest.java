@@ -0,0 +1,73 @@
+package com.streamflow.core.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void firesItemsOnlyOnceTheirTickHasPassed() {
+        // GIVEN: 10 ms ticks, 8 buckets per level, clock at 0
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 0);
+        assertTrue(wheel.add("a", 25));
+        assertTrue(wheel.add("b", 55));
+
+        List<String> fired = new ArrayList<>();
+
+        // WHEN / THEN: Nothing before its tick, each item once it is reached
+        wheel.advance(19, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(20, fired::add);
+        assertEquals(List.of("a"), fired);
+        wheel.advance(60, fired::add);
+        assertEquals(List.of("a", "b"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rejectsItemsThatAreAlreadyDue() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 1000);
+        assertFalse(wheel.add("late", 1005));
+        assertFalse(wheel.add("past", 500));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void itemsBeyondTheFirstLevelCascadeDownAndFireInOrder() {
+        // GIVEN: Level spans of 80 ms, 640 ms and 5120 ms; items spread over all three levels
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 8, 0);
+        Random random = new Random(7);
+        List<Long> expirations = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long expiration = 10 + random.nextInt(5000);
+            expirations.add(expiration);
+            assertTrue(wheel.add(expiration, expiration));
+        }
+
+        // WHEN: The clock moves forward in uneven steps
+        List<Long> fired = new ArrayList<>();
+        long now = 0;
+        while (now < 5200) {
+            now += 1 + random.nextInt(70);
+            long clock = now;
+            wheel.advance(clock, expiration -> {
+                // THEN: Never early, and never later than the tick it falls in
+                assertTrue(expiration < clock + 10, "fired early: " + expiration + " at " + clock);
+                fired.add(expiration);
+            });
+        }
+
+        assertEquals(expirations.size(), fired.size());
+        for (int i = 1; i < fired.size(); i++) {
+            assertTrue(fired.get(i - 1) / 10 <= fired.get(i) / 10, "out of tick order at " + i);
+        }
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,133 @@
+package com.streamflow.core.scheduler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.streamflow.core.config.NotificationProperties;
+import com.streamflow.core.model.ScheduledNotification;
+import com.streamflow.core.service.MetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two scheduler nodes sharing one collection. The schedulers are built disabled, so no background
+ * threads run and each test drives {@code load()} and {@code renewLeases()} itself.
+ */
+@Testcontainers
+@ExtendWith(MockitoExtension.class)
+class NotificationSchedulerTests {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0");
+
+    private static final int ITEMS = 200;
+    private static final long LEASE_MS = 1000;
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private NotificationScheduler nodeA;
+    private NotificationScheduler nodeB;
+
+    @BeforeAll
+    static void connect() {
+        client = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(client, "scheduler");
+    }
+
+    @AfterAll
+    static void close() {
+        client.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), ScheduledNotification.class);
+        long dueAt = System.currentTimeMillis() + 5000;
+        List<ScheduledNotification> items = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(ScheduledNotification.builder()
+                    .payload("{\"message\":\"item " + i + "\"}")
+                    .userId("user-" + i)
+                    .dueAt(dueAt + i)
+                    .status(ScheduledNotification.STATUS_PENDING)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        mongoTemplate.insertAll(items);
+
+        NotificationProperties properties = new NotificationProperties();
+        properties.getScheduler().setLoadBatchSize(16);
+        properties.getScheduler().setLeaseMs(LEASE_MS);
+        nodeA = newNode(properties);
+        nodeB = newNode(properties);
+    }
+
+    @Test
+    void concurrentLoadersClaimDisjointSets() {
+        // WHEN: Both nodes load the same slice at the same time
+        CompletableFuture.allOf(CompletableFuture.runAsync(nodeA::load), CompletableFuture.runAsync(nodeB::load)).join();
+
+        // THEN: Every item is held by exactly one node
+        List<ScheduledNotification> all = mongoTemplate.findAll(ScheduledNotification.class);
+        assertEquals(ITEMS, all.size());
+        assertEquals(0, all.stream().filter(item -> !ScheduledNotification.STATUS_LOADED.equals(item.getStatus())).count());
+        assertEquals(ITEMS, nodeA.getLoaded() + nodeB.getLoaded());
+        assertEquals(nodeA.getLoaded(), owned(nodeA.getNodeId()));
+        assertEquals(nodeB.getLoaded(), owned(nodeB.getNodeId()));
+    }
+
+    @Test
+    void itemsOfANodeThatStopsRenewingAreReclaimedOnceTheLeaseExpires() throws InterruptedException {
+        // GIVEN: Node A holds everything
+        nodeA.load();
+        assertEquals(ITEMS, owned(nodeA.getNodeId()));
+
+        // WHEN / THEN: While A keeps renewing, B claims nothing, even past the original lease
+        Thread.sleep(LEASE_MS * 2 / 3);
+        nodeA.renewLeases();
+        Thread.sleep(LEASE_MS * 2 / 3);
+        nodeB.load();
+        assertEquals(0, nodeB.getLoaded());
+
+        // A stops renewing (e.g. it died); after the lease B takes every item over
+        Thread.sleep(LEASE_MS + 200);
+        nodeB.load();
+        assertEquals(ITEMS, nodeB.getLoaded());
+        assertEquals(ITEMS, owned(nodeB.getNodeId()));
+        assertEquals(0, owned(nodeA.getNodeId()));
+    }
+
+    private NotificationScheduler newNode(NotificationProperties properties) {
+        return new NotificationScheduler(properties, mongoTemplate, kafkaTemplate,
+                new MetricsService(new SimpleMeterRegistry(), properties), new ObjectMapper().findAndRegisterModules());
+    }
+
+    private static long owned(String owner) {
+        return mongoTemplate.count(Query.query(Criteria.where("owner").is(owner)
+                .and("status").is(ScheduledNotification.STATUS_LOADED)), ScheduledNotification.class);
+    }
+}
@@ -0,0 +1,101 @@
+package com.streamflow.core.security;
+
+import com.streamflow.core.config.NotificationProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DistributedRateLimitSyncTest {
+
+    private static final long SECOND = 1_700_000_000_000L;   // an arbitrary whole second, in millis
+
+    private StringRedisTemplate redisTemplate;
+    private Tenant tenant;
+    private DistributedRateLimitSync sync;
+
+    @BeforeEach
+    void setUp() {
+        NotificationProperties properties = new NotificationProperties();
+        NotificationProperties.Tenant config = new NotificationProperties.Tenant();
+        config.setId("acme");
+        config.setApiKeys(List.of("acme-key"));
+        config.setRequestsPerSecond(100.0);
+        config.setBurst(200);
+        properties.getSecurity().setApiKey(null);
+        properties.getSecurity().setTenants(List.of(config));
+        properties.getSecurity().getDistributedRateLimit().setMinShare(0.1);
+
+        TenantRegistry registry = new TenantRegistry(properties);
+        tenant = registry.findByApiKey("acme-key").orElseThrow();
+        redisTemplate = mock(StringRedisTemplate.class);
+        sync = new DistributedRateLimitSync(registry, redisTemplate, properties);
+    }
+
+    @Test
+    void nodeGetsItsShareOfRateAndBurstForTheNextSecond() {
+        // GIVEN: This node granted 10 permits while the cluster as a whole granted 40
+        grant(10);
+        clusterTotalIs(40);
+        sync.sync(SECOND);
+
+        // WHEN: The second closes
+        clusterTotalIs(0);
+        sync.sync(SECOND + 1000);
+
+        // THEN: A quarter of the tenant quota, rate and burst alike
+        assertEquals(25.0, tenant.getRateLimiter().getRate(), 1e-9);
+        assertEquals(50, tenant.getRateLimiter().getBurst());
+    }
+
+    @Test
+    void idleNodeKeepsTheMinimumShare() {
+        // GIVEN: Other nodes took all the traffic
+        clusterTotalIs(1000);
+        sync.sync(SECOND);
+
+        // WHEN
+        sync.sync(SECOND + 1000);
+
+        // THEN: Floored at min-share so the node can still admit new traffic
+        assertEquals(10.0, tenant.getRateLimiter().getRate(), 1e-9);
+        assertEquals(20, tenant.getRateLimiter().getBurst());
+    }
+
+    @Test
+    void redisOutageFallsBackToPerNodeLimits() {
+        // GIVEN: A quarter share computed from the previous second
+        grant(10);
+        clusterTotalIs(40);
+        sync.sync(SECOND);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenThrow(new IllegalStateException("redis down"));
+        sync.sync(SECOND + 1000);
+        assertEquals(25.0, tenant.getRateLimiter().getRate(), 1e-9);
+
+        // WHEN: Redis stays down for the whole second
+        sync.sync(SECOND + 1500);
+        sync.sync(SECOND + 2000);
+
+        // THEN: Nothing is known about the cluster, so the node enforces the full quota on its own
+        assertEquals(100.0, tenant.getRateLimiter().getRate(), 1e-9);
+        assertEquals(200, tenant.getRateLimiter().getBurst());
+    }
+
+    private void grant(int permits) {
+        for (int i = 0; i < permits; i++) {
+            tenant.getRateLimiter().tryAcquire();
+        }
+    }
+
+    // Pipeline results are INCRBY then EXPIRE per tenant
+    private void clusterTotalIs(long total) {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(total, true));
+    }
+}
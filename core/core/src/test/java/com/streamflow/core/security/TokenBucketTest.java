@@ -0,0 +1,89 @@
+package com.streamflow.core.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    @Test
+    void grantsExactlyTheBurstThenRejects() {
+        // GIVEN: A slow refill so nothing is replenished during the test
+        TokenBucket bucket = new TokenBucket(0.001, 5, 1);
+
+        // WHEN / THEN: The first 5 permits are granted, the 6th is rejected
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryAcquire(), "Permit " + i + " should be granted");
+        }
+        assertFalse(bucket.tryAcquire());
+        assertTrue(bucket.nanosUntilNextPermit() > 0);
+        assertEquals(5, bucket.drainAccepted());
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws Exception {
+        // GIVEN: A striped bucket shared by many threads
+        TokenBucket bucket = new TokenBucket(0.001, 1000, 4);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // WHEN: 8 threads race for 5000 permits in total
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < 625; i++) {
+                    if (bucket.tryAcquire()) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        // THEN: Exactly the burst is handed out, spread across stripes
+        assertEquals(1000, granted.get());
+    }
+
+    @Test
+    void stripedBurstAddsUpToTheConfiguredBurst() {
+        // GIVEN: A burst that doesn't divide evenly across the stripes
+        TokenBucket bucket = new TokenBucket(0.001, 10, 4);
+
+        // WHEN: Permits are drawn until the bucket runs dry
+        int granted = 0;
+        while (bucket.tryAcquire()) {
+            granted++;
+        }
+
+        // THEN: The remainder isn't dropped, and a scaled-down burst is spread the same way
+        assertEquals(10, granted);
+        TokenBucket scaled = new TokenBucket(0.001, 100, 4);
+        scaled.setLimits(0.001, 7);
+        int grantedAfterResize = 0;
+        while (scaled.tryAcquire()) {
+            grantedAfterResize++;
+        }
+        assertEquals(7, grantedAfterResize);
+    }
+
+    @Test
+    void rejectsBurstSmallerThanStripes() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(100, 3, 4));
+    }
+}
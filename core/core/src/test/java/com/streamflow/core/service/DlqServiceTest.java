@@ -0,0 +1,241 @@
+package com.streamflow.core.service;
+
+import com.streamflow.core.config.NotificationProperties;
+import com.streamflow.core.dto.DlqRedriveRequest;
+import com.streamflow.core.dto.DlqRedriveStatusResponse;
+import com.streamflow.core.exception.ResourceNotFoundException;
+import com.streamflow.core.model.DlqRecord;
+import com.streamflow.core.repository.DlqRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DlqServiceTest {
+
+    @Mock
+    private DlqRecordRepository repository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private DlqService dlqService;
+
+    @BeforeEach
+    void setUp() {
+        NotificationProperties properties = new NotificationProperties();
+        properties.getDlq().setRedriveMaxRatePerSecond(1000);
+        dlqService = new DlqService(repository, mongoTemplate, kafkaTemplate, properties,
+                new MetricsService(new SimpleMeterRegistry(), properties));
+    }
+
+    @AfterEach
+    void tearDown() {
+        dlqService.shutdown();
+    }
+
+    // ========== DLQ PUBLISH ==========
+
+    @Test
+    void failedConsumerRecordCarriesItsOriginAndRedriveCount() {
+        // GIVEN: A message that had already been redriven twice
+        ConsumerRecord<String, String> failed = new ConsumerRecord<>("user-notifications", 3, 42L, "user-1", "{}");
+        DlqHeaders.put(failed.headers(), DlqHeaders.REDRIVE_COUNT, 2);
+
+        // WHEN
+        ProducerRecord<String, String> record = dlqService.toDlqRecord(failed, new IllegalStateException("boom"), 3);
+
+        // THEN: Payload and key unchanged, failure context in string headers
+        assertEquals("notifications-dlq", record.topic());
+        assertEquals("user-1", record.key());
+        assertEquals("{}", record.value());
+        assertEquals("user-notifications", DlqHeaders.get(record.headers(), DlqHeaders.ORIGINAL_TOPIC));
+        assertEquals(3, DlqHeaders.getInt(record.headers(), DlqHeaders.ORIGINAL_PARTITION, -1));
+        assertEquals(42L, DlqHeaders.getLong(record.headers(), DlqHeaders.ORIGINAL_OFFSET, -1));
+        assertEquals(IllegalStateException.class.getName(), DlqHeaders.get(record.headers(), DlqHeaders.EXCEPTION_CLASS));
+        assertEquals("boom", DlqHeaders.get(record.headers(), DlqHeaders.EXCEPTION_MESSAGE));
+        assertEquals(3, DlqHeaders.getInt(record.headers(), DlqHeaders.ATTEMPTS, 0));
+        assertEquals(2, DlqHeaders.getInt(record.headers(), DlqHeaders.REDRIVE_COUNT, 0));
+        assertTrue(DlqHeaders.getLong(record.headers(), DlqHeaders.FAILED_AT, 0) > 0);
+    }
+
+    @Test
+    void headersAreReplacedNotAppended() {
+        // GIVEN / WHEN: A header written twice, and a null value
+        ProducerRecord<String, String> record = dlqService.toDlqRecord("delivery:SMS", "user-1", "{}", "X", null, 1);
+        DlqHeaders.put(record.headers(), DlqHeaders.ATTEMPTS, 5);
+
+        // THEN: One value per name, and a null message is simply absent
+        assertEquals(1, List.of(record.headers().toArray()).stream().filter(h -> h.key().equals(DlqHeaders.ATTEMPTS)).count());
+        assertEquals(5, DlqHeaders.getInt(record.headers(), DlqHeaders.ATTEMPTS, 0));
+        assertNull(DlqHeaders.get(record.headers(), DlqHeaders.EXCEPTION_MESSAGE));
+
+        // A malformed number falls back to the default instead of failing the indexer
+        record.headers().add(DlqHeaders.ATTEMPTS, "not-a-number".getBytes(StandardCharsets.UTF_8));
+        assertEquals(-1, DlqHeaders.getInt(record.headers(), DlqHeaders.ATTEMPTS, -1));
+    }
+
+    // ========== CLASSIFICATION INDEX ==========
+
+    @Test
+    void indexIsKeyedByDlqPositionAndStripsTheLegacyPrefix() {
+        // GIVEN: A legacy DLQ message without failure headers
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("notifications-dlq", 1, 7L, null, "FAILED_PAYLOAD: {\"a\":1}");
+
+        // WHEN
+        dlqService.index(record);
+
+        // THEN: Upserted by <partition>-<offset> with insert-only fields, so re-reading is harmless
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(DlqRecord.class));
+        assertEquals("1-7", query.getValue().getQueryObject().get("_id"));
+        Document fields = (Document) update.getValue().getUpdateObject().get("$setOnInsert");
+        assertEquals("{\"a\":1}", fields.get("payload"));
+        assertEquals("UNKNOWN", fields.get("exceptionClass"));
+        assertEquals(DlqRecord.STATUS_PENDING, fields.get("status"));
+        assertEquals(-1, fields.get("originalPartition"));
+    }
+
+    // ========== REDRIVE ==========
+
+    @Test
+    void redriveIsPacedToTheRequestedRate() throws InterruptedException {
+        // GIVEN: 5 pending messages replayed at 20/s
+        stubPending(records(5));
+        when(kafkaTemplate.send(ArgumentMatchers.<ProducerRecord<String, String>>any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // WHEN
+        long started = System.nanoTime();
+        DlqRedriveStatusResponse job = awaitFinished(dlqService.startRedrive(request(20)).getJobId());
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        // THEN: 4 intervals of 50ms between the 5 sends, every record marked
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(5, job.getSent());
+        assertTrue(elapsedMs >= 190, "took " + elapsedMs + "ms");
+        assertEquals(List.of("r0", "r1", "r2", "r3", "r4"), redrivenIds());
+    }
+
+    @Test
+    void cancelledRedriveStopsAtTheNextMessage() throws InterruptedException {
+        // GIVEN: 20 messages at 10/s, two seconds of work
+        stubPending(records(20));
+        when(kafkaTemplate.send(ArgumentMatchers.<ProducerRecord<String, String>>any())).thenReturn(CompletableFuture.completedFuture(null));
+        String jobId = dlqService.startRedrive(request(10)).getJobId();
+
+        // WHEN
+        Thread.sleep(250);
+        dlqService.cancelRedrive(jobId);
+
+        // THEN: Only what was sent before the cancel is marked
+        DlqRedriveStatusResponse job = awaitFinished(jobId);
+        assertEquals("CANCELLED", job.getStatus());
+        assertTrue(job.getSent() > 0 && job.getSent() < 20, "sent " + job.getSent());
+        assertEquals(job.getSent(), redrivenIds().size());
+    }
+
+    @Test
+    void partlyFailedBatchMarksTheAcknowledgedRecords() throws InterruptedException {
+        // GIVEN: The second of three sends fails
+        stubPending(records(3));
+        when(kafkaTemplate.send(ArgumentMatchers.<ProducerRecord<String, String>>any()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // WHEN
+        DlqRedriveStatusResponse job = awaitFinished(dlqService.startRedrive(request(1000)).getJobId());
+
+        // THEN: The job fails, but the two replayed records are not left PENDING for a second replay
+        assertEquals("FAILED", job.getStatus());
+        assertEquals(2, job.getSent());
+        assertEquals(List.of("r0", "r2"), redrivenIds());
+    }
+
+    @Test
+    void finishedJobsAreEvictedAfterTheRetention() throws InterruptedException {
+        // GIVEN: A completed job
+        stubPending(records(1));
+        when(kafkaTemplate.send(ArgumentMatchers.<ProducerRecord<String, String>>any())).thenReturn(CompletableFuture.completedFuture(null));
+        String jobId = awaitFinished(dlqService.startRedrive(request(1000)).getJobId()).getJobId();
+
+        // WHEN / THEN: Still queryable within the retention, gone after it
+        dlqService.evictFinishedJobs(LocalDateTime.now().plusMinutes(59));
+        assertEquals("COMPLETED", dlqService.getRedrive(jobId).getStatus());
+        dlqService.evictFinishedJobs(LocalDateTime.now().plusMinutes(61));
+        assertThrows(ResourceNotFoundException.class, () -> dlqService.getRedrive(jobId));
+    }
+
+    private void stubPending(List<DlqRecord> records) {
+        when(mongoTemplate.count(any(Query.class), eq(DlqRecord.class))).thenReturn((long) records.size());
+        when(mongoTemplate.find(any(Query.class), eq(DlqRecord.class))).thenReturn(records, List.of());
+    }
+
+    private static List<DlqRecord> records(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> DlqRecord.builder().id("r" + i).payload("{}").status(DlqRecord.STATUS_PENDING).build())
+                .toList();
+    }
+
+    private static DlqRedriveRequest request(int ratePerSecond) {
+        DlqRedriveRequest request = new DlqRedriveRequest();
+        request.setRatePerSecond(ratePerSecond);
+        return request;
+    }
+
+    private DlqRedriveStatusResponse awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        DlqRedriveStatusResponse job = dlqService.getRedrive(jobId);
+        while (job.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = dlqService.getRedrive(jobId);
+        }
+        return job;
+    }
+
+    // Ids of every record marked REDRIVEN, in order
+    private List<Object> redrivenIds() {
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, atLeastOnce()).updateMulti(queries.capture(), any(Update.class), eq(DlqRecord.class));
+        List<Object> ids = new ArrayList<>();
+        for (Query query : queries.getAllValues()) {
+            ids.addAll((Collection<?>) ((Document) query.getQueryObject().get("_id")).get("$in"));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,135 @@
+package com.streamflow.core.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.streamflow.core.model.NotificationLog;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Testcontainers
+class NotificationSearchServiceTests {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0");
+
+    private static final String TENANT = "acme";
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private static MongoClient client;
+    private static NotificationSearchService searchService;
+
+    @BeforeAll
+    static void setUp() {
+        client = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        MongoTemplate mongoTemplate = new MongoTemplate(client, "search");
+        searchService = new NotificationSearchService(mongoTemplate);
+
+        IndexOperations indexOps = mongoTemplate.indexOps(NotificationLog.class);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(NotificationLog.class)
+                .forEach(indexOps::ensureIndex);
+
+        // 12 matching "payment" notifications alternating type/channel/user, one minute apart
+        for (int i = 0; i < 12; i++) {
+            mongoTemplate.insert(NotificationLog.builder()
+                    .message("payment received for order " + i)
+                    .type(i % 2 == 0 ? "INFO" : "ERROR")
+                    .channel(i % 3 == 0 ? "SMS" : "EMAIL")
+                    .userId("user-" + (i % 2))
+                    .tenant(TENANT)
+                    .timestamp(BASE.plusMinutes(i))
+                    .build());
+        }
+        // Repeats the term, so it outranks the others by text score despite being the oldest
+        mongoTemplate.insert(NotificationLog.builder()
+                .message("payment payment payment")
+                .type("WARN")
+                .channel("PUSH")
+                .userId("user-2")
+                .tenant(TENANT)
+                .timestamp(BASE.minusDays(1))
+                .build());
+        mongoTemplate.insert(NotificationLog.builder()
+                .message("password changed")
+                .type("INFO")
+                .channel("EMAIL")
+                .userId("user-0")
+                .tenant(TENANT)
+                .timestamp(BASE)
+                .build());
+        // Another tenant's match, which no search above may return
+        mongoTemplate.insert(NotificationLog.builder()
+                .message("payment payment payment payment")
+                .type("INFO")
+                .channel("EMAIL")
+                .userId("user-0")
+                .tenant("globex")
+                .timestamp(BASE.plusDays(1))
+                .build());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void pagesReportTheTotalAcrossAllPages() {
+        Page<NotificationLog> first = searchService.search(TENANT, "payment", null, null, null, null, null, false, PageRequest.of(0, 5));
+        Page<NotificationLog> last = searchService.search(TENANT, "payment", null, null, null, null, null, false, PageRequest.of(2, 5));
+
+        assertEquals(13, first.getTotalElements());
+        assertEquals(3, first.getTotalPages());
+        assertEquals(5, first.getContent().size());
+        assertEquals(3, last.getContent().size());
+        // Newest first when not sorting by relevance
+        assertEquals(BASE.plusMinutes(11), first.getContent().get(0).getTimestamp());
+        assertEquals(BASE.minusDays(1), last.getContent().get(2).getTimestamp());
+    }
+
+    @Test
+    void filtersNarrowTheTextMatches() {
+        assertEquals(6, searchService.search(TENANT, "payment", "ERROR", null, null, null, null, false, PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(4, searchService.search(TENANT, "payment", null, "SMS", null, null, null, false, PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(6, searchService.search(TENANT, "payment", null, null, "user-1", null, null, false, PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(2, searchService.search(TENANT, "payment", "INFO", "SMS", "user-0", null, null, false, PageRequest.of(0, 10)).getTotalElements());
+
+        // Both bounds are inclusive
+        Page<NotificationLog> range = searchService.search(TENANT, "payment", null, null, null,
+                BASE.plusMinutes(3), BASE.plusMinutes(6), false, PageRequest.of(0, 10));
+        assertEquals(4, range.getTotalElements());
+        assertTrue(range.getContent().stream().allMatch(log -> log.getMessage().startsWith("payment")));
+    }
+
+    @Test
+    void relevanceOrderPutsTheBestMatchFirst() {
+        Page<NotificationLog> byRelevance = searchService.search(TENANT, "payment", null, null, null, null, null, true, PageRequest.of(0, 3));
+
+        assertEquals("payment payment payment", byRelevance.getContent().get(0).getMessage());
+        assertEquals(13, byRelevance.getTotalElements());
+    }
+
+    @Test
+    void rejectsBlankTextAndOversizedPages() {
+        assertThrows(IllegalArgumentException.class,
+                () -> searchService.search(TENANT, " ", null, null, null, null, null, true, PageRequest.of(0, 10)));
+        assertThrows(IllegalArgumentException.class,
+                () -> searchService.search(TENANT, "payment", null, null, null, null, null, true,
+                        PageRequest.of(0, NotificationSearchService.MAX_PAGE_SIZE + 1)));
+    }
+}
@@ -0,0 +1,131 @@
+package com.streamflow.core.service;
+
+import com.streamflow.core.config.NotificationProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Testcontainers
+class RecentFeedServiceTests {
+
+    @Container
+    static GenericContainer<?> redisContainer = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    private static final String TENANT = "acme";
+    private static final long WINDOW_MS = Duration.ofHours(1).toMillis();
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private NotificationProperties properties;
+    private RecentFeedService feed;
+    private long now;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(redisContainer.getHost(), redisContainer.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void close() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.serverCommands().flushAll();
+        }
+        properties = new NotificationProperties();
+        properties.getRedis().setRecentFeedWindow(Duration.ofMillis(WINDOW_MS));
+        properties.getRedis().setRecentFeedPruneEvery(1000);
+        feed = new RecentFeedService(redisTemplate, properties);
+        now = System.currentTimeMillis();
+    }
+
+    @Test
+    void rangeIsNewestFirstAndBoundedByTheLimit() {
+        for (int i = 5; i >= 1; i--) {
+            feed.add(TENANT, "n" + i, now - i * 1000L, "payload " + i);
+        }
+
+        RecentFeedService.Slice slice = feed.range(TENANT, null, 3);
+
+        assertEquals(List.of("payload 1", "payload 2", "payload 3"), slice.getPayloads());
+        // The oldest returned entry decides when this answer changes
+        assertEquals(now - 3000 + WINDOW_MS, slice.getValidUntilMillis());
+    }
+
+    @Test
+    void sinceCutoffIsInclusive() {
+        for (int i = 1; i <= 5; i++) {
+            feed.add(TENANT, "n" + i, now - i * 1000L, "payload " + i);
+        }
+
+        RecentFeedService.Slice slice = feed.range(TENANT, now - 3000, 10);
+
+        assertEquals(List.of("payload 1", "payload 2", "payload 3"), slice.getPayloads());
+    }
+
+    @Test
+    void entriesOlderThanTheWindowAreNeverReturned() {
+        // GIVEN: One entry past the window, not yet pruned
+        feed.add(TENANT, "old", now - WINDOW_MS - 1000, "old");
+        feed.add(TENANT, "new", now - 1000, "new");
+
+        // WHEN / THEN: Excluded without a since, and a since older than the window is clamped to it
+        assertEquals(List.of("new"), feed.range(TENANT, null, 10).getPayloads());
+        assertEquals(List.of("new"), feed.range(TENANT, now - 2 * WINDOW_MS, 10).getPayloads());
+    }
+
+    @Test
+    void pruningTrimsByAgeAndSize() {
+        // GIVEN: Prune on every write, keep at most 3
+        properties.getRedis().setRecentFeedPruneEvery(1);
+        properties.getRedis().setRecentFeedMaxSize(3);
+        String key = properties.getRedis().getRecentFeedKey() + ":" + TENANT;
+
+        // WHEN: One expired entry and five fresh ones are written
+        feed.add(TENANT, "expired", now - WINDOW_MS - 1000, "expired");
+        for (int i = 5; i >= 1; i--) {
+            feed.add(TENANT, "n" + i, now - i * 1000L, "payload " + i);
+        }
+
+        // THEN: Only the three newest remain in Redis
+        assertEquals(3L, redisTemplate.opsForZSet().zCard(key));
+        assertEquals(List.of("payload 1", "payload 2", "payload 3"), feed.range(TENANT, null, 10).getPayloads());
+    }
+
+    @Test
+    void identicalPayloadsStaySeparateAndTenantsDoNotMix() {
+        feed.add(TENANT, "n1", now - 2000, "same");
+        feed.add(TENANT, "n2", now - 1000, "same");
+        feed.add("globex", "n3", now - 1000, "other tenant");
+
+        assertEquals(List.of("same", "same"), feed.range(TENANT, null, 10).getPayloads());
+        assertEquals(List.of("other tenant"), feed.range("globex", null, 10).getPayloads());
+    }
+
+    @Test
+    void emptyFeedStaysValidUntilTheNextWrite() {
+        RecentFeedService.Slice slice = feed.range(TENANT, null, 10);
+
+        assertEquals(List.of(), slice.getPayloads());
+        assertEquals(Long.MAX_VALUE, slice.getValidUntilMillis());
+    }
+}
@@ -0,0 +1,171 @@
+package com.streamflow.core.tracing;
+
+import brave.Span;
+import brave.Tracer;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import brave.sampler.Sampler;
+import com.streamflow.core.config.NotificationProperties;
+import com.streamflow.core.service.MetricsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TailSamplingSpanHandlerTest {
+
+    private static final long START_MICROS = 1_700_000_000_000_000L;
+
+    private final List<String> reported = new CopyOnWriteArrayList<>();
+    // Stands in for the Zipkin handler: later in the chain, and the tail sampler's reporter
+    private final SpanHandler zipkin = new SpanHandler() {
+        @Override
+        public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+            reported.add(span.name());
+            return true;
+        }
+    };
+    private SimpleMeterRegistry meterRegistry;
+    private TailSamplingSpanHandler handler;
+    private Tracing tracing;
+
+    @BeforeEach
+    void setUp() {
+        NotificationProperties properties = new NotificationProperties();
+        properties.getTracing().setSlowThresholdMs(1000);
+        properties.getTracing().setBufferTtlMs(30000);
+        meterRegistry = new SimpleMeterRegistry();
+        MetricsService metricsService = new MetricsService(meterRegistry, properties);
+        handler = new TailSamplingSpanHandler(zipkin,
+                new StaticListableBeanFactory(Map.of("metricsService", metricsService)).getBeanProvider(MetricsService.class),
+                properties);
+        tracing = tracing(Sampler.NEVER_SAMPLE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracing.close();
+    }
+
+    @Test
+    void headSampledTracesPassStraightThrough() {
+        // GIVEN: The base rate picked this trace
+        tracing.close();
+        tracing = tracing(Sampler.ALWAYS_SAMPLE);
+
+        // WHEN
+        tracing.tracer().newTrace().name("root").start(START_MICROS).finish(START_MICROS + 10);
+
+        // THEN: Reported by the next handler, without buffering
+        assertEquals(List.of("root"), reported);
+    }
+
+    @Test
+    void erroredTraceIsKeptWithItsBufferedSpans() {
+        // GIVEN: A fast unsampled trace whose child failed
+        Tracer tracer = tracing.tracer();
+        Span root = tracer.newTrace().name("root").start(START_MICROS);
+        tracer.newChild(root.context()).name("child").start(START_MICROS).error(new IllegalStateException("boom")).finish(START_MICROS + 5);
+        assertTrue(reported.isEmpty());
+
+        // WHEN
+        root.finish(START_MICROS + 10);
+
+        // THEN: The whole local trace is reported
+        assertEquals(List.of("child", "root"), reported);
+    }
+
+    @Test
+    void dlqHandoffIsKept() {
+        Tracer tracer = tracing.tracer();
+        Span root = tracer.newTrace().name("root").start(START_MICROS);
+        root.tag(TailSamplingSpanHandler.DLQ_TAG, "true");
+        root.finish(START_MICROS + 10);
+
+        assertEquals(List.of("root"), reported);
+    }
+
+    @Test
+    void slowTraceIsKept() {
+        // GIVEN / WHEN: A successful trace just over the 1s threshold
+        tracing.tracer().newTrace().name("root").start(START_MICROS)
+                .finish(START_MICROS + TimeUnit.MILLISECONDS.toMicros(1001));
+
+        // THEN
+        assertEquals(List.of("root"), reported);
+    }
+
+    @Test
+    void fastSuccessfulTraceIsDroppedWithItsLateSpans() {
+        // GIVEN: A fast successful trace with a span that finishes before and one after the root
+        Tracer tracer = tracing.tracer();
+        Span root = tracer.newTrace().name("root").start(START_MICROS);
+        tracer.newChild(root.context()).name("early").start(START_MICROS).finish(START_MICROS + 5);
+        Span late = tracer.newChild(root.context()).name("late").start(START_MICROS);
+
+        // WHEN
+        root.finish(START_MICROS + 10);
+        late.finish(START_MICROS + 20);
+
+        // THEN: Nothing reaches Zipkin; the late span follows the decision taken at the root
+        assertTrue(reported.isEmpty());
+        assertEquals(3.0, dropped("not_sampled"));
+    }
+
+    @Test
+    void lateSpanOfAKeptTraceIsReported() {
+        Tracer tracer = tracing.tracer();
+        Span root = tracer.newTrace().name("root").start(START_MICROS);
+        Span callback = tracer.newChild(root.context()).name("callback").start(START_MICROS);
+
+        root.error(new IllegalStateException("boom")).finish(START_MICROS + 10);
+        callback.finish(START_MICROS + 20);
+
+        assertEquals(List.of("root", "callback"), reported);
+    }
+
+    @Test
+    void staleBuffersAreEvicted() {
+        // GIVEN: A child buffered under a root that has not finished
+        Tracer tracer = tracing.tracer();
+        Span root = tracer.newTrace().name("root").start(START_MICROS);
+        tracer.newChild(root.context()).name("orphan").start(START_MICROS).error(new IllegalStateException("boom")).finish(START_MICROS + 5);
+
+        // WHEN: Still within the TTL, then past it
+        handler.evictStaleBuffers(System.nanoTime() + TimeUnit.SECONDS.toNanos(29));
+        assertEquals(0.0, dropped("expired"));
+        handler.evictStaleBuffers(System.nanoTime() + TimeUnit.SECONDS.toNanos(31));
+
+        // THEN: The buffered span is gone, so the error no longer keeps the trace
+        assertEquals(1.0, dropped("expired"));
+        root.finish(START_MICROS + 10);
+        assertTrue(reported.isEmpty());
+    }
+
+    // The tail sampler first, then the reporter, as the application wires them
+    private Tracing tracing(Sampler sampler) {
+        return Tracing.newBuilder()
+                .sampler(sampler)
+                .alwaysSampleLocal()
+                .addSpanHandler(handler)
+                .addSpanHandler(zipkin)
+                .build();
+    }
+
+    private double dropped(String reason) {
+        Counter counter = meterRegistry.find("tracing.spans.dropped.total").tag("reason", reason).counter();
+        return counter != null ? counter.count() : 0.0;
+    }
+}